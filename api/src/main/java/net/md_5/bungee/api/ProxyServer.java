@@ -283,6 +283,16 @@ public abstract class ProxyServer
      */
     public abstract Collection<ProxiedPlayer> matchPlayer(String name);
 
+    /**
+     * Finds players whose name starts with the given prefix, ignoring case.
+     * This is backed by a sorted index and is suitable for tab completion.
+     *
+     * @param prefix the start of the name
+     * @param limit the most players to return
+     * @return up to limit matching players, in name order
+     */
+    public abstract Collection<ProxiedPlayer> matchPlayerPrefix(String prefix, int limit);
+
     /**
      * Creates a new empty title configuration. In most cases you will want to
      * {@link Title#reset()} the current title first so your title won't be
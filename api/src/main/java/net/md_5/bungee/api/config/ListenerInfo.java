@@ -2,6 +2,7 @@ package net.md_5.bungee.api.config;
 
 import java.net.InetSocketAddress;
 import java.util.Map;
+import lombok.AllArgsConstructor;
 import lombok.Data;
 
 /**
@@ -9,6 +10,7 @@ import lombok.Data;
  * multiple listeners on different ports.
  */
 @Data
+@AllArgsConstructor
 public class ListenerInfo
 {
 
@@ -68,4 +70,38 @@ public class ListenerInfo
      * Whether to enable udp query.
      */
     private final boolean queryEnabled;
+    /**
+     * Compression threshold sent to clients, or -1 to use the threshold sent
+     * by the backend server.
+     */
+    private final int compressionThreshold;
+    /**
+     * Deflate level (0-9) used when compressing packets sent to clients, or -1
+     * for the zlib default.
+     */
+    private final int compressionLevel;
+    /**
+     * Whether the compression level may be lowered while the network threads
+     * are busier than the configured target utilisation.
+     */
+    private final boolean adaptiveCompression;
+    /**
+     * Number of channels to accept connections on, sharing the host with
+     * SO_REUSEPORT so that the kernel spreads connections between them. Only
+     * supported with the epoll transport.
+     */
+    private final int acceptors;
+
+    /**
+     * Creates a listener with the default compression settings (the backend
+     * threshold, default level, not adaptive) and a single acceptor.
+     *
+     * @deprecated kept for plugins built against the original constructor,
+     * use the full constructor instead
+     */
+    @Deprecated
+    public ListenerInfo(InetSocketAddress host, String motd, int maxPlayers, int tabListSize, String defaultServer, String fallbackServer, boolean forceDefault, Map<String, String> forcedHosts, String tabListType, boolean setLocalAddress, boolean pingPassthrough, int queryPort, boolean queryEnabled)
+    {
+        this( host, motd, maxPlayers, tabListSize, defaultServer, fallbackServer, forceDefault, forcedHosts, tabListType, setLocalAddress, pingPassthrough, queryPort, queryEnabled, -1, -1, false, 1 );
+    }
 }
@@ -30,12 +30,22 @@ public interface ServerInfo
     InetSocketAddress getAddress();
 
     /**
-     * Get the set of all players on this server.
+     * Get the set of all players on this server. The returned collection is a
+     * live view: it is not copied, reflects players joining and leaving, and
+     * may be iterated while they do so. Copy it if a stable snapshot is
+     * needed.
      *
-     * @return an unmodifiable collection of all players on this server
+     * @return an unmodifiable view of all players on this server
      */
     Collection<ProxiedPlayer> getPlayers();
 
+    /**
+     * Get the number of players on this server, without iterating them.
+     *
+     * @return the number of players on this server
+     */
+    int getPlayerCount();
+
     /**
      * Returns the MOTD which should be used when this server is a forced host.
      *
@@ -67,5 +67,13 @@ public interface Connection
          * @param packet the packet to send
          */
         void sendPacket(DefinedPacket packet);
+
+        /**
+         * Immediately flush packets sent to this connection. Packets sent
+         * while the proxy is handling network reads are otherwise flushed
+         * together once the reads are complete, so this is only needed for
+         * latency critical packets.
+         */
+        void flushNow();
     }
 }
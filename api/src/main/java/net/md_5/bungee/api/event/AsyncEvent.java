@@ -1,13 +1,25 @@
 package net.md_5.bungee.api.event;
 
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
 import java.util.Collections;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
 import lombok.ToString;
 import net.md_5.bungee.api.Callback;
 import net.md_5.bungee.api.plugin.Event;
@@ -28,18 +40,66 @@ public class AsyncEvent<T> extends Event
     private final Set<Plugin> intents = Collections.newSetFromMap( new ConcurrentHashMap<Plugin, Boolean>() );
     private final AtomicBoolean fired = new AtomicBoolean();
     private final AtomicInteger latch = new AtomicInteger();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private final SettableFuture<T> completion = SettableFuture.create();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile Executor executor = MoreExecutors.directExecutor();
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private volatile ScheduledFuture<?> timeout;
 
     @Override
-    @SuppressWarnings("unchecked")
     public void postCall()
     {
         fired.set( true );
         if ( latch.get() == 0 )
         {
-            done.done( (T) this, null );
+            complete( null );
         }
     }
 
+    /**
+     * Run the callback on the given executor, typically the event loop of the
+     * connection which triggered this event, instead of whichever thread
+     * completes the last intent. If the intents are not all complete within
+     * the timeout the callback is run anyway with a {@link TimeoutException}
+     * as its error.
+     *
+     * @param executor the executor to run the callback on
+     * @param timeout the maximum time to wait for intents, or 0 to wait
+     * forever
+     * @param unit the unit of the timeout
+     */
+    public void completeOn(ScheduledExecutorService executor, long timeout, TimeUnit unit)
+    {
+        Preconditions.checkState( !fired.get(), "Event %s has already been fired", this );
+
+        this.executor = executor;
+        if ( timeout > 0 )
+        {
+            this.timeout = executor.schedule( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    complete( new TimeoutException( "Timed out waiting for intents " + intents ) );
+                }
+            }, timeout, unit );
+        }
+    }
+
+    /**
+     * Gets a future which completes with this event once the callback has
+     * been run.
+     *
+     * @return the completion of this event
+     */
+    public ListenableFuture<T> getCompletion()
+    {
+        return completion;
+    }
+
     /**
      * Register an intent that this plugin will continue to perform work on a
      * background task, and wishes to let the event proceed once the registered
@@ -56,20 +116,84 @@ public class AsyncEvent<T> extends Event
         latch.incrementAndGet();
     }
 
+    /**
+     * Register an intent which is completed once the given future is done, so
+     * that the plugin does not need to block or call
+     * {@link #completeIntent(Plugin)} itself.
+     *
+     * @param plugin the plugin registering this intent
+     * @param future the background work the event should wait for
+     */
+    public void registerIntent(final Plugin plugin, ListenableFuture<?> future)
+    {
+        registerIntent( plugin );
+        future.addListener( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                completeIntent( plugin );
+            }
+        }, MoreExecutors.directExecutor() );
+    }
+
     /**
      * Notifies this event that this plugin has done all its required processing
      * and wishes to let the event proceed.
      *
      * @param plugin a plugin which has an intent registered for this event
      */
-    @SuppressWarnings("unchecked")
     public void completeIntent(Plugin plugin)
     {
         Preconditions.checkState( intents.contains( plugin ), "Plugin %s has not registered intent for event %s", plugin, this );
         intents.remove( plugin );
         if ( latch.decrementAndGet() == 0 && fired.get() )
         {
-            done.done( (T) this, null );
+            complete( null );
+        }
+    }
+
+    private void complete(final Throwable error)
+    {
+        // The last intent and the timeout may race, only the first may call back
+        if ( !completed.compareAndSet( false, true ) )
+        {
+            return;
+        }
+        ScheduledFuture<?> pending = timeout;
+        if ( pending != null )
+        {
+            pending.cancel( false );
+        }
+
+        Runnable callback = new Runnable()
+        {
+            @Override
+            @SuppressWarnings("unchecked")
+            public void run()
+            {
+                try
+                {
+                    done.done( (T) AsyncEvent.this, error );
+                } finally
+                {
+                    if ( error == null )
+                    {
+                        completion.set( (T) AsyncEvent.this );
+                    } else
+                    {
+                        completion.setException( error );
+                    }
+                }
+            }
+        };
+        try
+        {
+            executor.execute( callback );
+        } catch ( RejectedExecutionException ex )
+        {
+            // Executor is shutting down, still let the caller clean up
+            callback.run();
         }
     }
 }
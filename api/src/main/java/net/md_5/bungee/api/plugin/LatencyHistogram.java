@@ -0,0 +1,66 @@
+package net.md_5.bungee.api.plugin;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock free histogram of latencies, bucketed by powers of two milliseconds.
+ */
+public class LatencyHistogram
+{
+
+    /**
+     * Bucket n counts latencies below 2^n ms, the last bucket counts the rest.
+     */
+    private static final int BUCKETS = 17;
+    //
+    private final AtomicLongArray buckets = new AtomicLongArray( BUCKETS );
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong total = new AtomicLong();
+
+    public void record(long nanos)
+    {
+        long millis = TimeUnit.NANOSECONDS.toMillis( nanos );
+        int bucket = ( millis <= 0 ) ? 0 : 64 - Long.numberOfLeadingZeros( millis );
+        buckets.incrementAndGet( Math.min( bucket, BUCKETS - 1 ) );
+        count.incrementAndGet();
+        total.addAndGet( nanos );
+    }
+
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * @return the mean latency in nanoseconds
+     */
+    public long getMean()
+    {
+        long recorded = count.get();
+        return ( recorded == 0 ) ? 0 : total.get() / recorded;
+    }
+
+    /**
+     * Gets an upper bound on the given percentile of recorded latencies.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound in milliseconds, or -1 if it falls in the last,
+     * unbounded, bucket
+     */
+    public long getPercentile(double percentile)
+    {
+        long target = (long) Math.ceil( count.get() * percentile / 100 );
+        long seen = 0;
+        for ( int i = 0; i < BUCKETS - 1; i++ )
+        {
+            seen += buckets.get( i );
+            if ( seen >= target )
+            {
+                return 1L << i;
+            }
+        }
+        return -1;
+    }
+}
@@ -1,15 +1,13 @@
 package net.md_5.bungee.api.plugin;
 
-import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import java.io.File;
 import java.io.InputStream;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.logging.Logger;
 import lombok.Getter;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.config.ConfigurationAdapter;
-import net.md_5.bungee.api.scheduler.GroupedThreadFactory;
+import net.md_5.bungee.api.scheduler.PluginExecutor;
 
 /**
  * Represents any Plugin that may be loaded at runtime to enhance existing
@@ -91,13 +89,16 @@ public class Plugin
     //
     private ExecutorService service;
 
+    /**
+     * The returned executor is a {@link PluginExecutor}, see there for the
+     * available thread policies and task statistics.
+     */
     @Deprecated
-    public ExecutorService getExecutorService()
+    public synchronized ExecutorService getExecutorService()
     {
         if ( service == null )
         {
-            service = Executors.newCachedThreadPool( new ThreadFactoryBuilder().setNameFormat( getDescription().getName() + " Pool Thread #%1$d" )
-                    .setThreadFactory( new GroupedThreadFactory( this ) ).build() );
+            service = PluginExecutor.create( this );
         }
         return service;
     }
@@ -4,6 +4,7 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.eventbus.Subscribe;
+import com.google.common.util.concurrent.MoreExecutors;
 import java.io.File;
 import java.io.InputStream;
 import java.lang.reflect.Method;
@@ -19,6 +20,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Stack;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.logging.Level;
@@ -28,6 +31,7 @@ import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.api.event.AsyncEvent;
 import net.md_5.bungee.event.EventBus;
 import net.md_5.bungee.event.EventHandler;
 import org.yaml.snakeyaml.Yaml;
@@ -53,6 +57,7 @@ public class PluginManager
     private Map<String, PluginDescription> toLoad = new HashMap<>();
     private final Multimap<Plugin, Command> commandsByPlugin = ArrayListMultimap.create();
     private final Multimap<Plugin, Listener> listenersByPlugin = ArrayListMultimap.create();
+    private final ConcurrentMap<Class<?>, LatencyHistogram> asyncLatency = new ConcurrentHashMap<>();
 
     @SuppressWarnings("unchecked")
     public PluginManager(ProxyServer proxy)
@@ -360,12 +365,24 @@ public class PluginManager
     {
         Preconditions.checkNotNull( event, "event" );
 
-        long start = System.nanoTime();
+        final long start = System.nanoTime();
         eventBus.post( event );
+        if ( event instanceof AsyncEvent )
+        {
+            final LatencyHistogram histogram = getAsyncLatency( event.getClass() );
+            ( (AsyncEvent<?>) event ).getCompletion().addListener( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    histogram.record( System.nanoTime() - start );
+                }
+            }, MoreExecutors.directExecutor() );
+        }
         event.postCall();
 
-        long elapsed = start - System.nanoTime();
-        if ( elapsed > 250000 )
+        long elapsed = System.nanoTime() - start;
+        if ( elapsed > 250000000 )
         {
             ProxyServer.getInstance().getLogger().log( Level.WARNING, "Event {0} took more {1}ns to process!", new Object[]
             {
@@ -375,6 +392,28 @@ public class PluginManager
         return event;
     }
 
+    /**
+     * Gets the time taken by events of the given type from being called until
+     * all intents on them completed.
+     *
+     * @param type the type of {@link AsyncEvent}
+     * @return the latency histogram for this event type
+     */
+    public LatencyHistogram getAsyncLatency(Class<? extends Event> type)
+    {
+        LatencyHistogram histogram = asyncLatency.get( type );
+        if ( histogram == null )
+        {
+            LatencyHistogram created = new LatencyHistogram();
+            histogram = asyncLatency.putIfAbsent( type, created );
+            if ( histogram == null )
+            {
+                histogram = created;
+            }
+        }
+        return histogram;
+    }
+
     /**
      * Register a {@link Listener} for receiving called events. Methods in this
      * Object which wish to receive events must be annotated with the
@@ -0,0 +1,203 @@
+package net.md_5.bungee.api.scheduler;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.lang.reflect.Method;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import lombok.Getter;
+import net.md_5.bungee.api.plugin.Plugin;
+
+/**
+ * Executor backing {@link Plugin#getExecutorService()}, which keeps the
+ * thread count of each plugin in check and records how long its tasks wait
+ * and run.
+ * <p>
+ * The policy is chosen with the <code>bungee.plugin.executor</code> system
+ * property:
+ * <ul>
+ * <li><code>cached</code> (default): a new thread whenever none is idle, as
+ * in previous versions. Tasks are only rejected once the plugin is
+ * disabled.</li>
+ * <li><code>bounded</code>: at most <code>bungee.plugin.threads</code>
+ * threads with a queue of <code>bungee.plugin.queue</code> tasks. Once both
+ * are full further tasks are rejected with a
+ * {@link RejectedExecutionException} and logged. They are never run on the
+ * submitting thread, which may be a network or timer thread shared with the
+ * rest of the proxy. Only suitable where plugins do not block waiting on each
+ * other's tasks.</li>
+ * <li><code>virtual</code>: a new virtual thread per task on JDKs which
+ * support them, otherwise <code>cached</code>.</li>
+ * </ul>
+ */
+public class PluginExecutor extends ThreadPoolExecutor
+{
+
+    private static final String POLICY = System.getProperty( "bungee.plugin.executor", "cached" );
+    private static final int THREADS = Integer.getInteger( "bungee.plugin.threads", 64 );
+    private static final int QUEUE = Integer.getInteger( "bungee.plugin.queue", 4096 );
+    //
+    @Getter
+    private final Plugin plugin;
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong waitTime = new AtomicLong();
+    private final AtomicLong runTime = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+
+    private PluginExecutor(Plugin plugin, int core, int max, BlockingQueue<Runnable> queue, ThreadFactory factory)
+    {
+        super( core, max, 60, TimeUnit.SECONDS, queue, factory, new LogAndReject() );
+        this.plugin = plugin;
+    }
+
+    /**
+     * Create the executor for a plugin according to the configured policy.
+     *
+     * @param plugin the owning plugin
+     * @return the new executor
+     */
+    public static PluginExecutor create(Plugin plugin)
+    {
+        return create( plugin, POLICY, THREADS, QUEUE );
+    }
+
+    static PluginExecutor create(Plugin plugin, String policy, int threads, int queue)
+    {
+        String name = plugin.getDescription().getName() + " Pool Thread #";
+        switch ( policy )
+        {
+            case "bounded":
+                PluginExecutor executor = new PluginExecutor( plugin, threads, threads, new LinkedBlockingQueue<Runnable>( queue ), platformThreads( plugin, name ) );
+                executor.allowCoreThreadTimeOut( true );
+                return executor;
+            case "virtual":
+                ThreadFactory virtual = virtualThreads( name );
+                if ( virtual != null )
+                {
+                    return new PluginExecutor( plugin, 0, Integer.MAX_VALUE, new SynchronousQueue<Runnable>(), virtual );
+                }
+            // Fall through when virtual threads are not supported
+            default:
+                return new PluginExecutor( plugin, 0, Integer.MAX_VALUE, new SynchronousQueue<Runnable>(), platformThreads( plugin, name ) );
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private static ThreadFactory platformThreads(Plugin plugin, String name)
+    {
+        return new ThreadFactoryBuilder().setNameFormat( name + "%1$d" ).setThreadFactory( new GroupedThreadFactory( plugin ) ).build();
+    }
+
+    /**
+     * Virtual threads cannot join a custom thread group, so they are
+     * attributed to the plugin by name only.
+     */
+    private static ThreadFactory virtualThreads(String name)
+    {
+        try
+        {
+            Class<?> builder = Class.forName( "java.lang.Thread$Builder" );
+            Object ofVirtual = Thread.class.getMethod( "ofVirtual" ).invoke( null );
+            ofVirtual = builder.getMethod( "name", String.class, long.class ).invoke( ofVirtual, name, 1L );
+            return (ThreadFactory) builder.getMethod( "factory" ).invoke( ofVirtual );
+        } catch ( ReflectiveOperationException ex )
+        {
+            return null;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        super.execute( new TimedTask( command ) );
+    }
+
+    /**
+     * @return the number of tasks waiting for a thread
+     */
+    public int getQueueDepth()
+    {
+        return getQueue().size();
+    }
+
+    /**
+     * @return the mean time in nanoseconds tasks waited for a thread
+     */
+    public long getAverageWaitTime()
+    {
+        long count = completed.get();
+        return ( count == 0 ) ? 0 : waitTime.get() / count;
+    }
+
+    /**
+     * @return the mean time in nanoseconds tasks took to run
+     */
+    public long getAverageRunTime()
+    {
+        long count = completed.get();
+        return ( count == 0 ) ? 0 : runTime.get() / count;
+    }
+
+    /**
+     * @return the number of tasks rejected because the executor was full or
+     * shut down
+     */
+    public long getRejectedCount()
+    {
+        return rejected.get();
+    }
+
+    private static class LogAndReject implements RejectedExecutionHandler
+    {
+
+        @Override
+        public void rejectedExecution(Runnable task, ThreadPoolExecutor executor)
+        {
+            PluginExecutor pool = (PluginExecutor) executor;
+            long count = pool.rejected.incrementAndGet();
+            // Only at powers of two, so a flood of rejections does not flood the log too
+            if ( !pool.isShutdown() && Long.bitCount( count ) == 1 )
+            {
+                pool.plugin.getLogger().log( Level.WARNING, "Executor full ({0} threads, {1} queued), {2} tasks rejected so far", new Object[]
+                {
+                    pool.getPoolSize(), pool.getQueue().size(), count
+                } );
+            }
+            throw new RejectedExecutionException( "Executor of " + pool.plugin.getDescription().getName() + " is " + ( pool.isShutdown() ? "shut down" : "full" ) );
+        }
+    }
+
+    private class TimedTask implements Runnable
+    {
+
+        private final Runnable task;
+        private final long submitted = System.nanoTime();
+
+        private TimedTask(Runnable task)
+        {
+            this.task = task;
+        }
+
+        @Override
+        public void run()
+        {
+            long start = System.nanoTime();
+            try
+            {
+                task.run();
+            } finally
+            {
+                waitTime.addAndGet( start - submitted );
+                runTime.addAndGet( System.nanoTime() - start );
+                completed.incrementAndGet();
+            }
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package net.md_5.bungee.command;
 
 import com.google.common.base.Function;
-import com.google.common.base.Predicate;
 import com.google.common.collect.Iterables;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.ProxyServer;
@@ -16,6 +15,11 @@ import net.md_5.bungee.api.plugin.TabExecutor;
 public abstract class PlayerCommand extends Command implements TabExecutor
 {
 
+    /**
+     * Most player names offered for a single tab completion.
+     */
+    public static final int MAX_COMPLETIONS = 100;
+
     public PlayerCommand(String name)
     {
         super( name );
@@ -29,15 +33,8 @@ public abstract class PlayerCommand extends Command implements TabExecutor
     @Override
     public Iterable<String> onTabComplete(CommandSender sender, String[] args)
     {
-        final String lastArg = ( args.length > 0 ) ? args[args.length - 1].toLowerCase() : "";
-        return Iterables.transform( Iterables.filter( ProxyServer.getInstance().getPlayers(), new Predicate<ProxiedPlayer>()
-        {
-            @Override
-            public boolean apply(ProxiedPlayer player)
-            {
-                return player.getName().toLowerCase().startsWith( lastArg );
-            }
-        } ), new Function<ProxiedPlayer, String>()
+        String lastArg = ( args.length > 0 ) ? args[args.length - 1] : "";
+        return Iterables.transform( ProxyServer.getInstance().matchPlayerPrefix( lastArg, MAX_COMPLETIONS ), new Function<ProxiedPlayer, String>()
         {
             @Override
             public String apply(ProxiedPlayer player)
@@ -0,0 +1,259 @@
+package net.md_5.bungee.api.event;
+
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.md_5.bungee.api.Callback;
+import net.md_5.bungee.api.plugin.Plugin;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AsyncEventTest
+{
+
+    private static final String LOOP_NAME = "Test Event Loop";
+    //
+    private final ScheduledThreadPoolExecutor loop = new ScheduledThreadPoolExecutor( 1, new ThreadFactoryBuilder().setNameFormat( LOOP_NAME ).build() );
+    private final Plugin plugin = new Plugin()
+    {
+    };
+
+    @Before
+    public void setup()
+    {
+        loop.setRemoveOnCancelPolicy( true );
+    }
+
+    @After
+    public void cleanup()
+    {
+        loop.shutdownNow();
+    }
+
+    private static class TestEvent extends AsyncEvent<TestEvent>
+    {
+
+        private TestEvent(Callback<TestEvent> done)
+        {
+            super( done );
+        }
+    }
+
+    private static class Recorder implements Callback<TestEvent>
+    {
+
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Throwable error;
+        private volatile Thread thread;
+
+        @Override
+        public void done(TestEvent result, Throwable error)
+        {
+            this.error = error;
+            this.thread = Thread.currentThread();
+            calls.incrementAndGet();
+        }
+    }
+
+    private static void await(TestEvent event) throws InterruptedException
+    {
+        try
+        {
+            event.getCompletion().get( 10, TimeUnit.SECONDS );
+        } catch ( ExecutionException ex )
+        {
+            // Checked through the recorded error instead
+        } catch ( TimeoutException ex )
+        {
+            Assert.fail( "Event was never completed" );
+        }
+    }
+
+    /**
+     * Waits until everything queued on the loop so far has run.
+     */
+    private void drain() throws Exception
+    {
+        loop.submit( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+            }
+        } ).get( 10, TimeUnit.SECONDS );
+    }
+
+    @Test
+    public void testExecutor() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        event.completeOn( loop, 0, TimeUnit.MILLISECONDS );
+        Assert.assertTrue( "No timeout should be scheduled", loop.getQueue().isEmpty() );
+
+        event.registerIntent( plugin );
+        event.postCall();
+        Assert.assertFalse( event.getCompletion().isDone() );
+
+        event.completeIntent( plugin );
+        await( event );
+        Assert.assertEquals( 1, recorder.calls.get() );
+        Assert.assertNull( recorder.error );
+        Assert.assertEquals( "Callback should run on the given executor", LOOP_NAME, recorder.thread.getName() );
+    }
+
+    @Test
+    public void testDirect() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        event.postCall();
+
+        Assert.assertEquals( 1, recorder.calls.get() );
+        Assert.assertSame( "Without an executor the callback runs inline", Thread.currentThread(), recorder.thread );
+        Assert.assertSame( event, event.getCompletion().get() );
+    }
+
+    @Test
+    public void testTimeout() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        long start = System.nanoTime();
+        event.completeOn( loop, 100, TimeUnit.MILLISECONDS );
+        event.registerIntent( plugin );
+        event.postCall();
+
+        await( event );
+        Assert.assertTrue( TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start ) >= 100 );
+        Assert.assertTrue( recorder.error instanceof TimeoutException );
+        Assert.assertEquals( LOOP_NAME, recorder.thread.getName() );
+        try
+        {
+            event.getCompletion().get();
+            Assert.fail( "Completion should carry the timeout" );
+        } catch ( ExecutionException ex )
+        {
+            Assert.assertTrue( ex.getCause() instanceof TimeoutException );
+        }
+
+        // The plugin finishing late is no longer waited on
+        event.completeIntent( plugin );
+        drain();
+        Assert.assertEquals( 1, recorder.calls.get() );
+    }
+
+    @Test
+    public void testCompletedBeforeTimeout() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        event.completeOn( loop, 10, TimeUnit.SECONDS );
+        event.registerIntent( plugin );
+        event.postCall();
+        Assert.assertEquals( 1, loop.getQueue().size() );
+
+        event.completeIntent( plugin );
+        await( event );
+        Assert.assertNull( recorder.error );
+        drain();
+        Assert.assertEquals( "Timeout should be cancelled", 0, loop.getQueue().size() );
+        Assert.assertEquals( 1, recorder.calls.get() );
+    }
+
+    @Test
+    public void testTimeoutRace() throws Exception
+    {
+        for ( int i = 0; i < 500; i++ )
+        {
+            Recorder recorder = new Recorder();
+            final TestEvent event = new TestEvent( recorder );
+            // Intent completes at about the same time as the timeout fires
+            event.completeOn( loop, 500, TimeUnit.MICROSECONDS );
+            event.registerIntent( plugin );
+            event.postCall();
+
+            final long until = System.nanoTime() + ThreadLocalRandom.current().nextLong( 1000000 );
+            Thread completer = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    while ( System.nanoTime() < until )
+                    {
+                    }
+                    event.completeIntent( plugin );
+                }
+            };
+            completer.start();
+
+            await( event );
+            completer.join();
+            drain();
+            Assert.assertEquals( "Callback should run exactly once", 1, recorder.calls.get() );
+            Assert.assertEquals( LOOP_NAME, recorder.thread.getName() );
+            Assert.assertTrue( recorder.error == null || recorder.error instanceof TimeoutException );
+        }
+    }
+
+    @Test
+    public void testFuture() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        event.completeOn( loop, 0, TimeUnit.MILLISECONDS );
+        SettableFuture<Object> future = SettableFuture.create();
+        event.registerIntent( plugin, future );
+        event.postCall();
+        Assert.assertFalse( event.getCompletion().isDone() );
+
+        future.set( new Object() );
+        await( event );
+        Assert.assertEquals( 1, recorder.calls.get() );
+        Assert.assertNull( recorder.error );
+        Assert.assertFalse( "Intent should be completed", event.getIntents().contains( plugin ) );
+    }
+
+    @Test
+    public void testFailedFuture() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        event.completeOn( loop, 0, TimeUnit.MILLISECONDS );
+        SettableFuture<Object> future = SettableFuture.create();
+        event.registerIntent( plugin, future );
+        event.postCall();
+
+        // A failed future still lets the event proceed, its error is the plugin's to handle
+        future.setException( new IOException( "Lookup failed" ) );
+        await( event );
+        Assert.assertEquals( 1, recorder.calls.get() );
+        Assert.assertNull( recorder.error );
+        Assert.assertEquals( LOOP_NAME, recorder.thread.getName() );
+        Assert.assertTrue( event.getIntents().isEmpty() );
+    }
+
+    @Test
+    public void testShutdownExecutor() throws Exception
+    {
+        Recorder recorder = new Recorder();
+        TestEvent event = new TestEvent( recorder );
+        event.completeOn( loop, 0, TimeUnit.MILLISECONDS );
+        event.registerIntent( plugin );
+        event.postCall();
+        loop.shutdown();
+
+        // Still called back, so the caller can clean up
+        event.completeIntent( plugin );
+        Assert.assertEquals( 1, recorder.calls.get() );
+        Assert.assertSame( Thread.currentThread(), recorder.thread );
+    }
+}
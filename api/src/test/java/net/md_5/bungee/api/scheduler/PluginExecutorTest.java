@@ -0,0 +1,249 @@
+package net.md_5.bungee.api.scheduler;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.plugin.PluginDescription;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PluginExecutorTest
+{
+
+    private final List<LogRecord> warnings = new ArrayList<>();
+    private final Plugin plugin = new Plugin()
+    {
+        private final PluginDescription description = new PluginDescription();
+        private final Logger logger = Logger.getAnonymousLogger();
+
+        {
+            description.setName( "Test" );
+            logger.setUseParentHandlers( false );
+            logger.addHandler( new Handler()
+            {
+                @Override
+                public void publish(LogRecord record)
+                {
+                    if ( record.getLevel() == Level.WARNING )
+                    {
+                        synchronized ( warnings )
+                        {
+                            warnings.add( record );
+                        }
+                    }
+                }
+
+                @Override
+                public void flush()
+                {
+                }
+
+                @Override
+                public void close()
+                {
+                }
+            } );
+        }
+
+        @Override
+        public PluginDescription getDescription()
+        {
+            return description;
+        }
+
+        @Override
+        public Logger getLogger()
+        {
+            return logger;
+        }
+    };
+
+    /**
+     * Submits tasks which each wait for the gate to open.
+     *
+     * @return a latch counted down as each task starts
+     */
+    private static CountDownLatch block(PluginExecutor executor, int tasks, final CountDownLatch gate)
+    {
+        final CountDownLatch started = new CountDownLatch( tasks );
+        for ( int i = 0; i < tasks; i++ )
+        {
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    started.countDown();
+                    try
+                    {
+                        gate.await();
+                    } catch ( InterruptedException ex )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            } );
+        }
+        return started;
+    }
+
+    private static void shutdown(PluginExecutor executor) throws InterruptedException
+    {
+        executor.shutdown();
+        Assert.assertTrue( executor.awaitTermination( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void testCached() throws Exception
+    {
+        PluginExecutor executor = PluginExecutor.create( plugin, "cached", 2, 2 );
+        CountDownLatch gate = new CountDownLatch( 1 );
+
+        // Far more tasks than the bounded policy would take, all running at once
+        CountDownLatch started = block( executor, 100, gate );
+        Assert.assertTrue( "Every task should get its own thread", started.await( 10, TimeUnit.SECONDS ) );
+        Assert.assertEquals( 100, executor.getPoolSize() );
+        Assert.assertEquals( 0, executor.getRejectedCount() );
+
+        gate.countDown();
+        shutdown( executor );
+        Assert.assertEquals( 100, executor.getCompletedTaskCount() );
+        Assert.assertTrue( warnings.isEmpty() );
+    }
+
+    @Test
+    public void testDefaultPolicy() throws Exception
+    {
+        if ( System.getProperty( "bungee.plugin.executor" ) == null )
+        {
+            PluginExecutor executor = PluginExecutor.create( plugin );
+            Assert.assertEquals( "Default should remain the unbounded cached pool", Integer.MAX_VALUE, executor.getMaximumPoolSize() );
+            shutdown( executor );
+        }
+    }
+
+    @Test
+    public void testBoundedRejection() throws Exception
+    {
+        PluginExecutor executor = PluginExecutor.create( plugin, "bounded", 2, 2 );
+        CountDownLatch gate = new CountDownLatch( 1 );
+
+        // Two running and two queued fill the executor
+        Assert.assertTrue( block( executor, 2, gate ).await( 10, TimeUnit.SECONDS ) );
+        block( executor, 2, gate );
+        Assert.assertEquals( 2, executor.getQueueDepth() );
+
+        final Thread[] ranOn = new Thread[ 1 ];
+        for ( int i = 0; i < 3; i++ )
+        {
+            try
+            {
+                executor.execute( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        ranOn[0] = Thread.currentThread();
+                    }
+                } );
+                Assert.fail( "Full executor should reject" );
+            } catch ( RejectedExecutionException ex )
+            {
+                Assert.assertEquals( "Executor of Test is full", ex.getMessage() );
+            }
+        }
+        Assert.assertNull( "Rejected tasks must not run, not even on the submitter", ranOn[0] );
+        Assert.assertEquals( 3, executor.getRejectedCount() );
+        // Logged at the first and second rejection only, powers of two
+        Assert.assertEquals( 2, warnings.size() );
+
+        gate.countDown();
+        shutdown( executor );
+        Assert.assertEquals( "Accepted tasks should all run", 4, executor.getCompletedTaskCount() );
+
+        try
+        {
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                }
+            } );
+            Assert.fail( "Shut down executor should reject" );
+        } catch ( RejectedExecutionException ex )
+        {
+            Assert.assertEquals( "Executor of Test is shut down", ex.getMessage() );
+        }
+        Assert.assertEquals( 4, executor.getRejectedCount() );
+        Assert.assertEquals( "Rejections after shutdown are expected and not logged", 2, warnings.size() );
+    }
+
+    @Test
+    public void testVirtual() throws Exception
+    {
+        PluginExecutor executor = PluginExecutor.create( plugin, "virtual", 2, 2 );
+        final Thread[] ranOn = new Thread[ 1 ];
+        final CountDownLatch done = new CountDownLatch( 1 );
+        executor.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                ranOn[0] = Thread.currentThread();
+                done.countDown();
+            }
+        } );
+        Assert.assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+        shutdown( executor );
+
+        Assert.assertTrue( ranOn[0].getName().startsWith( "Test Pool Thread #" ) );
+        Assert.assertEquals( "Unbounded with or without virtual threads", Integer.MAX_VALUE, executor.getMaximumPoolSize() );
+        Method isVirtual;
+        try
+        {
+            isVirtual = Thread.class.getMethod( "isVirtual" );
+        } catch ( NoSuchMethodException ex )
+        {
+            // Falls back to the cached pool
+            return;
+        }
+        Assert.assertTrue( (Boolean) isVirtual.invoke( ranOn[0] ) );
+    }
+
+    @Test
+    public void testStatistics() throws Exception
+    {
+        PluginExecutor executor = PluginExecutor.create( plugin, "bounded", 1, 10 );
+        for ( int i = 0; i < 3; i++ )
+        {
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        Thread.sleep( 20 );
+                    } catch ( InterruptedException ex )
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            } );
+        }
+        shutdown( executor );
+
+        Assert.assertTrue( executor.getAverageRunTime() >= TimeUnit.MILLISECONDS.toNanos( 20 ) );
+        // The second and third task waited behind the first
+        Assert.assertTrue( executor.getAverageWaitTime() >= TimeUnit.MILLISECONDS.toNanos( 20 ) );
+    }
+}
@@ -4,13 +4,15 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.text.MessageFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -18,9 +20,16 @@ public class EventBus
 {
 
     private final Map<Class<?>, Map<Byte, Map<Object, Method[]>>> byListenerAndPriority = new HashMap<>();
-    private final Map<Class<?>, EventHandlerMethod[]> byEventBaked = new HashMap<>();
-    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    /**
+     * Baked handlers for each concrete event class, including those listening
+     * to its supertypes. Never modified once published, writers copy it and
+     * publish the copy, so posting never needs to lock.
+     */
+    private volatile Map<Class<?>, EventHandlerMethod[]> byEventBaked = Collections.emptyMap();
+    private final Map<Method, EventInvoker> invokers = new HashMap<>();
+    private final Lock lock = new ReentrantLock();
     private final Logger logger;
+    private final boolean generateInvokers;
 
     public EventBus()
     {
@@ -28,38 +37,51 @@ public class EventBus
     }
 
     public EventBus(Logger logger)
+    {
+        this( logger, isJavassistPresent() );
+    }
+
+    EventBus(Logger logger, boolean generateInvokers)
     {
         this.logger = ( logger == null ) ? Logger.getGlobal() : logger;
+        this.generateInvokers = generateInvokers;
     }
 
-    public void post(Object event)
+    private static boolean isJavassistPresent()
     {
-        lock.readLock().lock();
         try
         {
-            EventHandlerMethod[] handlers = byEventBaked.get( event.getClass() );
-            if ( handlers != null )
+            Class.forName( "javassist.ClassPool", false, EventBus.class.getClassLoader() );
+            return true;
+        } catch ( ClassNotFoundException ex )
+        {
+            return false;
+        }
+    }
+
+    public void post(Object event)
+    {
+        EventHandlerMethod[] handlers = byEventBaked.get( event.getClass() );
+        if ( handlers == null )
+        {
+            handlers = bakeHandlers( event.getClass() );
+        }
+
+        for ( EventHandlerMethod method : handlers )
+        {
+            try
             {
-                for ( EventHandlerMethod method : handlers )
-                {
-                    try
-                    {
-                        method.invoke( event );
-                    } catch ( IllegalAccessException ex )
-                    {
-                        throw new Error( "Method became inaccessible: " + event, ex );
-                    } catch ( IllegalArgumentException ex )
-                    {
-                        throw new Error( "Method rejected target/argument: " + event, ex );
-                    } catch ( InvocationTargetException ex )
-                    {
-                        logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, method.getListener() ), ex.getCause() );
-                    }
-                }
+                method.invoke( event );
+            } catch ( IllegalAccessException ex )
+            {
+                throw new Error( "Method became inaccessible: " + event, ex );
+            } catch ( IllegalArgumentException ex )
+            {
+                throw new Error( "Method rejected target/argument: " + event, ex );
+            } catch ( InvocationTargetException ex )
+            {
+                logger.log( Level.WARNING, MessageFormat.format( "Error dispatching event {0} to listener {1}", event, method.getListener() ), ex.getCause() );
             }
-        } finally
-        {
-            lock.readLock().unlock();
         }
     }
 
@@ -101,7 +123,7 @@ public class EventBus
     public void register(Object listener)
     {
         Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
-        lock.writeLock().lock();
+        lock.lock();
         try
         {
             for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
@@ -120,21 +142,22 @@ public class EventBus
                         currentPriorityMap = new HashMap<>();
                         prioritiesMap.put( entry.getKey(), currentPriorityMap );
                     }
-                    Method[] baked = new Method[ entry.getValue().size() ];
-                    currentPriorityMap.put( listener, entry.getValue().toArray( baked ) );
+                    Method[] methods = new Method[ entry.getValue().size() ];
+                    currentPriorityMap.put( listener, entry.getValue().toArray( methods ) );
                 }
-                bakeHandlers( e.getKey() );
             }
+            // Any event class could listen to one of the changed types, so rebake them all as they are next posted
+            byEventBaked = Collections.emptyMap();
         } finally
         {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     public void unregister(Object listener)
     {
         Map<Class<?>, Map<Byte, Set<Method>>> handler = findHandlers( listener );
-        lock.writeLock().lock();
+        lock.lock();
         try
         {
             for ( Map.Entry<Class<?>, Map<Byte, Set<Method>>> e : handler.entrySet() )
@@ -159,48 +182,135 @@ public class EventBus
                         byListenerAndPriority.remove( e.getKey() );
                     }
                 }
-                bakeHandlers( e.getKey() );
             }
+            // Rebaked as they are next posted, as in register
+            byEventBaked = Collections.emptyMap();
         } finally
         {
-            lock.writeLock().unlock();
+            lock.unlock();
         }
     }
 
     /**
-     * Shouldn't be called without first locking the writeLock; intended for use
-     * only inside {@link #register(java.lang.Object) register(Object)} or
-     * {@link #unregister(java.lang.Object) unregister(Object)}.
+     * Merges the handlers listening to the event class and all of its
+     * supertypes in priority order, and caches the result until listeners next
+     * change.
      */
-    private void bakeHandlers(Class<?> eventClass)
+    private EventHandlerMethod[] bakeHandlers(Class<?> eventClass)
     {
-        Map<Byte, Map<Object, Method[]>> handlersByPriority = byListenerAndPriority.get( eventClass );
-        if ( handlersByPriority != null )
+        lock.lock();
+        try
         {
-            List<EventHandlerMethod> handlersList = new ArrayList<>( handlersByPriority.size() * 2 );
+            EventHandlerMethod[] handlers = byEventBaked.get( eventClass );
+            if ( handlers != null )
+            {
+                // Baked by another thread while we waited
+                return handlers;
+            }
+
+            List<Map<Byte, Map<Object, Method[]>>> byType = new ArrayList<>();
+            for ( Class<?> type : getHierarchy( eventClass ) )
+            {
+                Map<Byte, Map<Object, Method[]>> handlersByPriority = byListenerAndPriority.get( type );
+                if ( handlersByPriority != null )
+                {
+                    byType.add( handlersByPriority );
+                }
+            }
 
-            // Either I'm really tired, or the only way we can iterate between Byte.MIN_VALUE and Byte.MAX_VALUE inclusively,
-            // with only a byte on the stack is by using a do {} while() format loop.
-            byte value = Byte.MIN_VALUE;
-            do
+            List<EventHandlerMethod> handlersList = new ArrayList<>();
+            if ( !byType.isEmpty() )
             {
-                Map<Object, Method[]> handlersByListener = handlersByPriority.get( value );
-                if ( handlersByListener != null )
+                // Either I'm really tired, or the only way we can iterate between Byte.MIN_VALUE and Byte.MAX_VALUE inclusively,
+                // with only a byte on the stack is by using a do {} while() format loop.
+                byte value = Byte.MIN_VALUE;
+                do
                 {
-                    for ( Map.Entry<Object, Method[]> listenerHandlers : handlersByListener.entrySet() )
+                    for ( Map<Byte, Map<Object, Method[]>> handlersByPriority : byType )
                     {
-                        for ( Method method : listenerHandlers.getValue() )
+                        Map<Object, Method[]> handlersByListener = handlersByPriority.get( value );
+                        if ( handlersByListener != null )
                         {
-                            EventHandlerMethod ehm = new EventHandlerMethod( listenerHandlers.getKey(), method );
-                            handlersList.add( ehm );
+                            for ( Map.Entry<Object, Method[]> listenerHandlers : handlersByListener.entrySet() )
+                            {
+                                for ( Method method : listenerHandlers.getValue() )
+                                {
+                                    EventHandlerMethod ehm = new EventHandlerMethod( listenerHandlers.getKey(), method, getInvoker( method ) );
+                                    handlersList.add( ehm );
+                                }
+                            }
                         }
                     }
-                }
-            } while ( value++ < Byte.MAX_VALUE );
-            byEventBaked.put( eventClass, handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] ) );
-        } else
+                } while ( value++ < Byte.MAX_VALUE );
+            }
+            handlers = handlersList.toArray( new EventHandlerMethod[ handlersList.size() ] );
+
+            Map<Class<?>, EventHandlerMethod[]> baked = new HashMap<>( byEventBaked );
+            baked.put( eventClass, handlers );
+            byEventBaked = baked;
+            return handlers;
+        } finally
         {
-            byEventBaked.put( eventClass, null );
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the class, its superclasses and all interfaces they implement, most
+     * specific first.
+     */
+    private static Set<Class<?>> getHierarchy(Class<?> eventClass)
+    {
+        Set<Class<?>> hierarchy = new LinkedHashSet<>();
+        for ( Class<?> type = eventClass; type != null; type = type.getSuperclass() )
+        {
+            hierarchy.add( type );
+        }
+        for ( Class<?> type : new ArrayList<>( hierarchy ) )
+        {
+            addInterfaces( type, hierarchy );
+        }
+        return hierarchy;
+    }
+
+    private static void addInterfaces(Class<?> type, Set<Class<?>> hierarchy)
+    {
+        for ( Class<?> iface : type.getInterfaces() )
+        {
+            if ( hierarchy.add( iface ) )
+            {
+                addInterfaces( iface, hierarchy );
+            }
+        }
+    }
+
+    /**
+     * Gets a generated invoker for the method, or null if it must be called
+     * through reflection. Shouldn't be called without first locking the lock.
+     */
+    private EventInvoker getInvoker(Method method)
+    {
+        if ( !generateInvokers )
+        {
+            return null;
+        }
+        if ( invokers.containsKey( method ) )
+        {
+            return invokers.get( method );
+        }
+
+        EventInvoker invoker = null;
+        if ( InvokerGenerator.canGenerate( method ) )
+        {
+            try
+            {
+                invoker = InvokerGenerator.generate( method );
+            } catch ( Throwable t )
+            {
+                logger.log( Level.WARNING, "Could not generate invoker for " + method + ", using reflection", t );
+            }
         }
+        invokers.put( method, invoker );
+        return invoker;
     }
 }
@@ -2,10 +2,8 @@ package net.md_5.bungee.event;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 
-@AllArgsConstructor
 public class EventHandlerMethod
 {
 
@@ -13,9 +11,38 @@ public class EventHandlerMethod
     private final Object listener;
     @Getter
     private final Method method;
+    private final EventInvoker invoker;
+
+    public EventHandlerMethod(Object listener, Method method)
+    {
+        this( listener, method, null );
+    }
+
+    /**
+     * Creates a handler which calls the method through the specified invoker,
+     * or through reflection if it is null.
+     */
+    public EventHandlerMethod(Object listener, Method method, EventInvoker invoker)
+    {
+        this.listener = listener;
+        this.method = method;
+        this.invoker = invoker;
+    }
 
     public void invoke(Object event) throws IllegalAccessException, IllegalArgumentException, InvocationTargetException
     {
-        method.invoke( listener, event );
+        if ( invoker == null )
+        {
+            method.invoke( listener, event );
+        } else
+        {
+            try
+            {
+                invoker.invoke( listener, event );
+            } catch ( Throwable t )
+            {
+                throw new InvocationTargetException( t );
+            }
+        }
     }
 }
@@ -0,0 +1,11 @@
+package net.md_5.bungee.event;
+
+/**
+ * Calls a single event handler method directly, without reflection.
+ * Implementations are generated at runtime by {@link InvokerGenerator}.
+ */
+public interface EventInvoker
+{
+
+    void invoke(Object listener, Object event) throws Throwable;
+}
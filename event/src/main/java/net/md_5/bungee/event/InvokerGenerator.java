@@ -0,0 +1,112 @@
+package net.md_5.bungee.event;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+/**
+ * Generates {@link EventInvoker} classes which call a handler method directly,
+ * so that dispatching an event is a plain virtual call rather than
+ * {@link Method#invoke(java.lang.Object, java.lang.Object[])}. Must only be
+ * touched if javassist is present.
+ * <p>
+ * The classes are built with javassist. On Java 9 and later they are defined
+ * through a {@link MethodHandles.Lookup} on the listener, as javassist can
+ * only define them by reflecting into ClassLoader, which Java 16 and later
+ * refuse.
+ */
+final class InvokerGenerator
+{
+
+    private static final AtomicInteger counter = new AtomicInteger();
+    // MethodHandles.privateLookupIn and Lookup.defineClass, both Java 9+
+    private static final Method privateLookupIn;
+    private static final Method defineClass;
+
+    static
+    {
+        Method lookupIn = null;
+        Method define = null;
+        try
+        {
+            lookupIn = MethodHandles.class.getMethod( "privateLookupIn", Class.class, MethodHandles.Lookup.class );
+            define = MethodHandles.Lookup.class.getMethod( "defineClass", byte[].class );
+        } catch ( NoSuchMethodException ex )
+        {
+            // Java 7 and 8, javassist defines the class itself
+        }
+        privateLookupIn = lookupIn;
+        defineClass = define;
+    }
+
+    private InvokerGenerator()
+    {
+    }
+
+    /**
+     * Checks whether a class defined alongside the listener could call the
+     * method, anything else is left to reflection.
+     */
+    static boolean canGenerate(Method method)
+    {
+        Class<?> listener = method.getDeclaringClass();
+        Class<?> event = method.getParameterTypes()[0];
+
+        int modifiers = method.getModifiers();
+        if ( Modifier.isPrivate( modifiers ) || Modifier.isStatic( modifiers ) )
+        {
+            return false;
+        }
+        if ( listener.getClassLoader() == null || Modifier.isPrivate( listener.getModifiers() ) || event.isPrimitive() || event.isArray() )
+        {
+            return false;
+        }
+        return Modifier.isPublic( event.getModifiers() ) || ( event.getClassLoader() == listener.getClassLoader() && getPackageName( event ).equals( getPackageName( listener ) ) );
+    }
+
+    private static String getPackageName(Class<?> clazz)
+    {
+        String name = clazz.getName();
+        int index = name.lastIndexOf( '.' );
+        return ( index == -1 ) ? "" : name.substring( 0, index );
+    }
+
+    static EventInvoker generate(Method method) throws Exception
+    {
+        Class<?> listener = method.getDeclaringClass();
+        Class<?> event = method.getParameterTypes()[0];
+
+        ClassPool pool = new ClassPool( true );
+        pool.appendClassPath( new LoaderClassPath( listener.getClassLoader() ) );
+        pool.appendClassPath( new LoaderClassPath( EventInvoker.class.getClassLoader() ) );
+
+        // Defined in the listener's package and loader, so package private listeners are accessible
+        CtClass invoker = pool.makeClass( listener.getName() + "$$EventInvoker$" + counter.incrementAndGet() );
+        try
+        {
+            invoker.addInterface( pool.get( EventInvoker.class.getName() ) );
+            invoker.addConstructor( CtNewConstructor.defaultConstructor( invoker ) );
+            invoker.addMethod( CtNewMethod.make( "public void invoke(Object listener, Object event) { ((" + listener.getName() + ") listener)." + method.getName() + "((" + event.getName() + ") event); }", invoker ) );
+
+            Class<?> generated;
+            if ( defineClass != null )
+            {
+                Object lookup = privateLookupIn.invoke( null, listener, MethodHandles.lookup() );
+                generated = (Class<?>) defineClass.invoke( lookup, (Object) invoker.toBytecode() );
+            } else
+            {
+                generated = invoker.toClass( listener.getClassLoader(), listener.getProtectionDomain() );
+            }
+            return (EventInvoker) generated.newInstance();
+        } finally
+        {
+            invoker.detach();
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package net.md_5.bungee.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class ConcurrentPostTest
+{
+
+    private static final int BENCHMARK_COUNT = 1000000;
+    // Roughly the number of Netty IO threads on a typical proxy
+    private static final int THREADS = Runtime.getRuntime().availableProcessors() * 2;
+
+    @Test
+    public void testRegisterWhilePosting() throws Exception
+    {
+        final EventBus bus = new EventBus();
+        final CountingListener listener = new CountingListener();
+        bus.register( listener );
+
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = startPosting( bus, THREADS, BENCHMARK_COUNT / 10, failure );
+
+        // Listeners coming and going must not disturb the one which stays registered
+        for ( int i = 0; i < 1000; i++ )
+        {
+            CountingListener other = new CountingListener();
+            bus.register( other );
+            bus.unregister( other );
+        }
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        Assert.assertNull( failure.get() );
+        Assert.assertEquals( THREADS * ( BENCHMARK_COUNT / 10 ), listener.count.get() );
+    }
+
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        System.out.println( "Benchmarking posts from 1 thread..." );
+        benchmark( 1 );
+        System.out.println( "Benchmarking posts from " + THREADS + " threads..." );
+        benchmark( THREADS );
+    }
+
+    private static void benchmark(int threadCount) throws Exception
+    {
+        EventBus bus = new EventBus();
+        bus.register( new NoopListener() );
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        long start = System.nanoTime();
+        for ( Thread thread : startPosting( bus, threadCount, BENCHMARK_COUNT, failure ) )
+        {
+            thread.join();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Assert.assertNull( failure.get() );
+        long posts = (long) threadCount * BENCHMARK_COUNT;
+        System.out.println( String.format( "Posts: %d, Elapsed: %d ms, %.0f posts/s", posts, elapsed / 1000000, posts / ( elapsed / 1e9 ) ) );
+    }
+
+    private static List<Thread> startPosting(final EventBus bus, int threadCount, final int posts, final AtomicReference<Throwable> failure)
+    {
+        final CountDownLatch start = new CountDownLatch( 1 );
+        List<Thread> threads = new ArrayList<>();
+        for ( int i = 0; i < threadCount; i++ )
+        {
+            Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        start.await();
+                        TestEvent event = new TestEvent();
+                        for ( int j = 0; j < posts; j++ )
+                        {
+                            bus.post( event );
+                        }
+                    } catch ( Throwable t )
+                    {
+                        failure.set( t );
+                    }
+                }
+            };
+            thread.start();
+            threads.add( thread );
+        }
+        start.countDown();
+        return threads;
+    }
+
+    public static class TestEvent
+    {
+    }
+
+    public static class CountingListener
+    {
+
+        private final AtomicLong count = new AtomicLong();
+
+        @EventHandler
+        public void onEvent(TestEvent event)
+        {
+            count.incrementAndGet();
+        }
+    }
+
+    public static class NoopListener
+    {
+
+        @EventHandler
+        public void onEvent(TestEvent event)
+        {
+        }
+    }
+}
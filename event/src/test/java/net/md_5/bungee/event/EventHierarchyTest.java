@@ -0,0 +1,72 @@
+package net.md_5.bungee.event;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventHierarchyTest
+{
+
+    private final EventBus bus = new EventBus();
+    private final List<String> called = new ArrayList<>();
+
+    @Test
+    public void testSupertypeListeners()
+    {
+        bus.register( this );
+        bus.post( new ChildEvent() );
+        Assert.assertEquals( Arrays.asList( "marker", "parent", "child" ), called );
+
+        called.clear();
+        bus.post( new ParentEvent() );
+        Assert.assertEquals( Arrays.asList( "parent" ), called );
+    }
+
+    @Test
+    public void testInvalidation()
+    {
+        bus.post( new ChildEvent() );
+        Assert.assertTrue( called.isEmpty() );
+
+        bus.register( this );
+        bus.post( new ChildEvent() );
+        Assert.assertEquals( 3, called.size() );
+
+        called.clear();
+        bus.unregister( this );
+        bus.post( new ChildEvent() );
+        Assert.assertTrue( called.isEmpty() );
+    }
+
+    @EventHandler(priority = EventPriority.LOW)
+    public void onMarker(Marker event)
+    {
+        called.add( "marker" );
+    }
+
+    @EventHandler
+    public void onParent(ParentEvent event)
+    {
+        called.add( "parent" );
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onChild(ChildEvent event)
+    {
+        called.add( "child" );
+    }
+
+    public interface Marker
+    {
+    }
+
+    public static class ParentEvent
+    {
+    }
+
+    public static class ChildEvent extends ParentEvent implements Marker
+    {
+    }
+}
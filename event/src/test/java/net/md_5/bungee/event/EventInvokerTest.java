@@ -0,0 +1,129 @@
+package net.md_5.bungee.event;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EventInvokerTest
+{
+
+    private static final int BENCHMARK_COUNT = 1000000;
+
+    @Test
+    public void testDispatch()
+    {
+        testDispatch( new EventBus( null, true ) );
+        testDispatch( new EventBus( null, false ) );
+    }
+
+    private void testDispatch(EventBus bus)
+    {
+        CountingListener counting = new CountingListener();
+        StaticListener.count = 0;
+        bus.register( counting );
+        bus.register( new StaticListener() );
+
+        bus.post( new CountedEvent() );
+        Assert.assertEquals( 1, counting.count );
+        Assert.assertEquals( 1, StaticListener.count );
+
+        bus.unregister( counting );
+        bus.post( new CountedEvent() );
+        Assert.assertEquals( 1, counting.count );
+        Assert.assertEquals( 2, StaticListener.count );
+    }
+
+    @Test
+    public void testGenerated()
+    {
+        CallerListener listener = new CallerListener();
+        EventBus bus = new EventBus( null, true );
+        bus.register( listener );
+        bus.post( new CountedEvent() );
+        Assert.assertTrue( "Handler should be called by a generated invoker, not " + listener.caller, listener.caller.startsWith( CallerListener.class.getName() + "$$EventInvoker$" ) );
+
+        bus = new EventBus( null, false );
+        bus.register( listener );
+        bus.post( new CountedEvent() );
+        Assert.assertFalse( listener.caller.contains( "$$EventInvoker$" ) );
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        for ( int listeners : new int[]
+        {
+            1, 10, 50
+        } )
+        {
+            System.out.println( "Benchmarking reflective dispatch with " + listeners + " listeners..." );
+            benchmark( new EventBus( null, false ), listeners );
+            System.out.println( "Benchmarking generated dispatch with " + listeners + " listeners..." );
+            benchmark( new EventBus( null, true ), listeners );
+        }
+    }
+
+    private static void benchmark(EventBus bus, int listeners)
+    {
+        for ( int i = 0; i < listeners; i++ )
+        {
+            bus.register( new CountingListener() );
+        }
+        CountedEvent event = new CountedEvent();
+
+        // Warm up before timing
+        for ( int i = 0; i < BENCHMARK_COUNT / 10; i++ )
+        {
+            bus.post( event );
+        }
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            bus.post( event );
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println( String.format( "Posts: %d, Elapsed: %d ms, %.0f posts/s", BENCHMARK_COUNT, elapsed / 1000000, BENCHMARK_COUNT / ( elapsed / 1e9 ) ) );
+    }
+
+    public static class CountedEvent
+    {
+    }
+
+    public static class CountingListener
+    {
+
+        private int count;
+
+        @EventHandler
+        public void onEvent(CountedEvent event)
+        {
+            count++;
+        }
+    }
+
+    public static class CallerListener
+    {
+
+        private String caller;
+
+        @EventHandler
+        public void onEvent(CountedEvent event)
+        {
+            caller = new Throwable().getStackTrace()[1].getClassName();
+        }
+    }
+
+    public static class StaticListener
+    {
+
+        private static int count;
+
+        // Static handlers are always called reflectively
+        @EventHandler
+        public static void onEvent(CountedEvent event)
+        {
+            count++;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package net.md_5.bungee.module.cmd.find;
 
+import java.util.Collection;
 import net.md_5.bungee.api.ChatColor;
 import net.md_5.bungee.api.CommandSender;
 import net.md_5.bungee.api.ProxyServer;
@@ -23,12 +24,21 @@ public class CommandFind extends PlayerCommand
         } else
         {
             ProxiedPlayer player = ProxyServer.getInstance().getPlayer( args[0] );
+            if ( player == null )
+            {
+                // Accept the start of a name, as long as only one player has it
+                Collection<ProxiedPlayer> matches = ProxyServer.getInstance().matchPlayerPrefix( args[0], 2 );
+                if ( matches.size() == 1 )
+                {
+                    player = matches.iterator().next();
+                }
+            }
             if ( player == null || player.getServer() == null )
             {
                 sender.sendMessage( ChatColor.RED + "That user is not online" );
             } else
             {
-                sender.sendMessage( ChatColor.BLUE + args[0] + " is online at " + player.getServer().getInfo().getName() );
+                sender.sendMessage( ChatColor.BLUE + player.getName() + " is online at " + player.getServer().getInfo().getName() );
             }
         }
     }
@@ -8,6 +8,7 @@ import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Command;
 import net.md_5.bungee.api.plugin.TabExecutor;
+import net.md_5.bungee.command.PlayerCommand;
 
 import java.util.Arrays;
 import java.util.HashSet;
@@ -88,12 +89,9 @@ public class CommandSend extends Command implements TabExecutor
         if ( args.length == 1 )
         {
             String search = args[0].toLowerCase();
-            for ( ProxiedPlayer player : ProxyServer.getInstance().getPlayers() )
+            for ( ProxiedPlayer player : ProxyServer.getInstance().matchPlayerPrefix( search, PlayerCommand.MAX_COMPLETIONS ) )
             {
-                if ( player.getName().toLowerCase().startsWith( search ) )
-                {
-                    matches.add( player.getName() );
-                }
+                matches.add( player.getName() );
             }
             if ( "all".startsWith( search ) )
             {
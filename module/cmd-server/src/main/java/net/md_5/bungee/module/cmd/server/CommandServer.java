@@ -48,7 +48,7 @@ public class CommandServer extends Command implements TabExecutor
                 if ( server.canAccess( player ) )
                 {
                     TextComponent serverTextComponent = new TextComponent( first ? server.getName() : ", " + server.getName() );
-                    int count = server.getPlayers().size();
+                    int count = server.getPlayerCount();
                     serverTextComponent.setHoverEvent( new HoverEvent( HoverEvent.Action.SHOW_TEXT,
                             new ComponentBuilder( count + ( count == 1 ? " player" : " players" ) + "\n" )
                             .append( "Click to connect to the server" ).italic( true )
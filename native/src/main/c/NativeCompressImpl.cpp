@@ -0,0 +1,79 @@
+#include <stdlib.h>
+#include <zlib.h>
+#include "net_md_5_bungee_NativeCompressImpl.h"
+
+typedef unsigned char byte;
+
+static jfieldID consumedID;
+static jfieldID finishedID;
+
+static void throwException(JNIEnv *env, const char* exception, const char* message) {
+    jclass exceptionClass = env->FindClass(exception);
+    env->ThrowNew(exceptionClass, message);
+}
+
+void JNICALL Java_net_md_15_bungee_NativeCompressImpl_initFields(JNIEnv* env, jclass clazz) {
+    consumedID = env->GetFieldID(clazz, "consumed", "I");
+    finishedID = env->GetFieldID(clazz, "finished", "Z");
+}
+
+jlong JNICALL Java_net_md_15_bungee_NativeCompressImpl_init(JNIEnv* env, jobject obj, jboolean compress, jint level) {
+    z_stream* stream = (z_stream*) calloc(1, sizeof (z_stream));
+
+    int ret = (compress) ? deflateInit(stream, level) : inflateInit(stream);
+    if (ret != Z_OK) {
+        free(stream);
+        throwException(env, "java/lang/IllegalStateException", "Could not init z_stream");
+        return 0;
+    }
+
+    return (jlong) stream;
+}
+
+void JNICALL Java_net_md_15_bungee_NativeCompressImpl_reset(JNIEnv* env, jobject obj, jlong ctx, jboolean compress) {
+    z_stream* stream = (z_stream*) ctx;
+
+    if (compress) {
+        deflateReset(stream);
+    } else {
+        inflateReset(stream);
+    }
+}
+
+void JNICALL Java_net_md_15_bungee_NativeCompressImpl_end(JNIEnv* env, jobject obj, jlong ctx, jboolean compress) {
+    z_stream* stream = (z_stream*) ctx;
+
+    if (compress) {
+        deflateEnd(stream);
+    } else {
+        inflateEnd(stream);
+    }
+    free(stream);
+}
+
+jint JNICALL Java_net_md_15_bungee_NativeCompressImpl_process(JNIEnv* env, jobject obj, jlong ctx, jlong in, jint inLength, jlong out, jint outLength, jboolean compress) {
+    z_stream* stream = (z_stream*) ctx;
+
+    stream->avail_in = inLength;
+    stream->next_in = (byte*) in;
+
+    stream->avail_out = outLength;
+    stream->next_out = (byte*) out;
+
+    int ret = (compress) ? deflate(stream, Z_FINISH) : inflate(stream, Z_PARTIAL_FLUSH);
+
+    switch (ret) {
+        case Z_STREAM_END:
+            env->SetBooleanField(obj, finishedID, JNI_TRUE);
+            break;
+        case Z_OK:
+            break;
+        default:
+            throwException(env, "java/util/zip/DataFormatException", (stream->msg != NULL) ? stream->msg : "Unknown z_stream return code");
+            return 0;
+    }
+
+    env->SetIntField(obj, consumedID, inLength - stream->avail_in);
+
+    return outLength - stream->avail_out;
+}
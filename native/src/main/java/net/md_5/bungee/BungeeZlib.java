@@ -0,0 +1,26 @@
+package net.md_5.bungee;
+
+import io.netty.buffer.ByteBuf;
+import java.util.zip.DataFormatException;
+
+/**
+ * Class to expose zlib methods from either native or fallback Java zlib.
+ */
+public interface BungeeZlib
+{
+
+    void init(boolean compress, int level);
+
+    void free();
+
+    /**
+     * Deflate or inflate all readable bytes of the input, appending the
+     * result to the output. The stream is reset afterwards, so each call
+     * processes exactly one zlib stream.
+     *
+     * @param in the data to process
+     * @param out the buffer to write the result to
+     * @throws DataFormatException if the input is not a valid zlib stream
+     */
+    void process(ByteBuf in, ByteBuf out) throws DataFormatException;
+}
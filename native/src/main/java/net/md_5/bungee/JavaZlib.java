@@ -0,0 +1,101 @@
+package net.md_5.bungee;
+
+import io.netty.buffer.ByteBuf;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+public class JavaZlib implements BungeeZlib
+{
+
+    private final byte[] buffer = new byte[ 8192 ];
+    private byte[] heapIn = new byte[ 0 ];
+    private boolean compress;
+    private Deflater deflater;
+    private Inflater inflater;
+
+    @Override
+    public void init(boolean compress, int level)
+    {
+        free();
+
+        this.compress = compress;
+        if ( compress )
+        {
+            deflater = new Deflater( level );
+        } else
+        {
+            inflater = new Inflater();
+        }
+    }
+
+    @Override
+    public void free()
+    {
+        if ( deflater != null )
+        {
+            deflater.end();
+            deflater = null;
+        }
+        if ( inflater != null )
+        {
+            inflater.end();
+            inflater = null;
+        }
+    }
+
+    @Override
+    public void process(ByteBuf in, ByteBuf out) throws DataFormatException
+    {
+        int length = in.readableBytes();
+        byte[] data;
+        int offset;
+        if ( in.hasArray() )
+        {
+            // Read straight from the backing array, no need to copy
+            data = in.array();
+            offset = in.arrayOffset() + in.readerIndex();
+        } else
+        {
+            if ( heapIn.length < length )
+            {
+                heapIn = new byte[ length ];
+            }
+            in.getBytes( in.readerIndex(), heapIn, 0, length );
+            data = heapIn;
+            offset = 0;
+        }
+        in.skipBytes( length );
+
+        if ( compress )
+        {
+            deflater.setInput( data, offset, length );
+            deflater.finish();
+            while ( !deflater.finished() )
+            {
+                int count = deflater.deflate( buffer );
+                out.writeBytes( buffer, 0, count );
+            }
+            deflater.reset();
+        } else
+        {
+            inflater.setInput( data, offset, length );
+            try
+            {
+                while ( !inflater.finished() )
+                {
+                    int count = inflater.inflate( buffer );
+                    if ( count == 0 && ( inflater.needsInput() || inflater.needsDictionary() ) )
+                    {
+                        throw new DataFormatException( "Truncated zlib stream" );
+                    }
+                    // Throws once the output buffer's maximum capacity is reached
+                    out.writeBytes( buffer, 0, count );
+                }
+            } finally
+            {
+                inflater.reset();
+            }
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package net.md_5.bungee;
+
+import java.util.zip.DataFormatException;
+
+class NativeCompressImpl
+{
+
+    int consumed;
+    boolean finished;
+
+    static
+    {
+        initFields();
+    }
+
+    static native void initFields();
+
+    native long init(boolean compress, int level);
+
+    native void reset(long ctx, boolean compress);
+
+    native void end(long ctx, boolean compress);
+
+    native int process(long ctx, long in, int inLength, long out, int outLength, boolean compress) throws DataFormatException;
+}
@@ -0,0 +1,121 @@
+package net.md_5.bungee;
+
+import com.google.common.base.Preconditions;
+import com.google.common.io.ByteStreams;
+import io.netty.buffer.ByteBuf;
+import lombok.Getter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.DataFormatException;
+
+public class NativeZlib implements BungeeZlib
+{
+
+    @Getter
+    private final NativeCompressImpl nativeCompress = new NativeCompressImpl();
+    /*============================================================================*/
+    private static boolean loaded;
+    private boolean compress;
+    private long ctx;
+
+    public static boolean isSupported()
+    {
+        return NativeCipher.isSupported();
+    }
+
+    public static boolean load()
+    {
+        if ( !loaded && isSupported() )
+        {
+            try ( InputStream lib = BungeeZlib.class.getClassLoader().getResourceAsStream( "native-compress.so" ) )
+            {
+                // Else we will create and copy it to a temp file
+                File temp = File.createTempFile( "bungeecord-native-compress", ".so" );
+                temp.deleteOnExit();
+
+                try ( OutputStream outputStream = new FileOutputStream( temp ) )
+                {
+                    ByteStreams.copy( lib, outputStream );
+                    System.load( temp.getPath() );
+                }
+                loaded = true;
+            } catch ( Throwable t )
+            {
+            }
+        }
+
+        return loaded;
+    }
+
+    public static boolean isLoaded()
+    {
+        return loaded;
+    }
+
+    @Override
+    public void init(boolean compress, int level)
+    {
+        free();
+
+        this.compress = compress;
+        this.ctx = nativeCompress.init( compress, level );
+    }
+
+    @Override
+    public void free()
+    {
+        if ( ctx != 0 )
+        {
+            nativeCompress.end( ctx, compress );
+            ctx = 0;
+        }
+
+        nativeCompress.consumed = 0;
+        nativeCompress.finished = false;
+    }
+
+    @Override
+    public void process(ByteBuf in, ByteBuf out) throws DataFormatException
+    {
+        Preconditions.checkState( ctx != 0, "Invalid pointer to zlib stream!" );
+
+        // zlib works on raw memory, so anything else (heap or composite buffers) must be brought off heap first
+        ByteBuf direct = null;
+        if ( !in.hasMemoryAddress() )
+        {
+            direct = in.alloc().directBuffer( in.readableBytes() );
+            direct.writeBytes( in );
+            in = direct;
+        }
+
+        try
+        {
+            while ( !nativeCompress.finished )
+            {
+                if ( !out.isWritable() )
+                {
+                    out.ensureWritable( 8192 );
+                }
+                // Smoke test, the output must also be direct
+                out.memoryAddress();
+
+                int processed = nativeCompress.process( ctx, in.memoryAddress() + in.readerIndex(), in.readableBytes(), out.memoryAddress() + out.writerIndex(), out.writableBytes(), compress );
+
+                in.readerIndex( in.readerIndex() + nativeCompress.consumed );
+                out.writerIndex( out.writerIndex() + processed );
+            }
+        } finally
+        {
+            if ( direct != null )
+            {
+                direct.release();
+            }
+
+            nativeCompress.reset( ctx, compress );
+            nativeCompress.consumed = 0;
+            nativeCompress.finished = false;
+        }
+    }
+}
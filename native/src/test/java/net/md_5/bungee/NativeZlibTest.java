@@ -0,0 +1,154 @@
+package net.md_5.bungee;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Random;
+import java.util.zip.Deflater;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class NativeZlibTest
+{
+
+    private static final int BENCHMARK_COUNT = 2000;
+
+    @Test
+    public void testNative() throws Exception
+    {
+        if ( NativeZlib.isSupported() )
+        {
+            boolean loaded = NativeZlib.load();
+            Assert.assertTrue( "Native zlib failed to load!", loaded );
+
+            System.out.println( "Testing native zlib..." );
+            testZlib( new NativeZlib(), new NativeZlib() );
+        }
+    }
+
+    @Test
+    public void testNativeBenchmark() throws Exception
+    {
+        if ( NativeZlib.isSupported() )
+        {
+            boolean loaded = NativeZlib.load();
+            Assert.assertTrue( "Native zlib failed to load!", loaded );
+
+            System.out.println( "Benchmarking native zlib..." );
+            testBenchmark( new NativeZlib(), new NativeZlib() );
+        }
+    }
+
+    @Test
+    public void testJDK() throws Exception
+    {
+        System.out.println( "Testing Java zlib..." );
+        testZlib( new JavaZlib(), new JavaZlib() );
+    }
+
+    @Test
+    public void testJDKBenchmark() throws Exception
+    {
+        System.out.println( "Benchmarking Java zlib..." );
+        testBenchmark( new JavaZlib(), new JavaZlib() );
+    }
+
+    private static ByteBuf createData()
+    {
+        // Semi compressible data, somewhat similar to a chunk
+        byte[] data = new byte[ 1 << 16 ];
+        Random random = new Random( 0 );
+        for ( int i = 0; i < data.length; i++ )
+        {
+            data[i] = (byte) ( ( i % 64 < 48 ) ? i % 7 : random.nextInt() );
+        }
+
+        ByteBuf buf = Unpooled.directBuffer( data.length );
+        buf.writeBytes( data );
+        return buf;
+    }
+
+    public void testZlib(BungeeZlib compressor, BungeeZlib decompressor) throws Exception
+    {
+        compressor.init( true, Deflater.DEFAULT_COMPRESSION );
+        decompressor.init( false, 0 );
+
+        ByteBuf original = createData();
+        ByteBuf compressed = Unpooled.directBuffer();
+        ByteBuf decompressed = Unpooled.directBuffer();
+
+        // Twice, to check that streams are reset between packets
+        for ( int i = 0; i < 2; i++ )
+        {
+            compressor.process( original, compressed );
+            Assert.assertTrue( "Data should have compressed", compressed.readableBytes() < original.writerIndex() );
+
+            decompressor.process( compressed, decompressed );
+            original.resetReaderIndex();
+            Assert.assertEquals( original, decompressed );
+
+            compressed.clear();
+            decompressed.clear();
+        }
+
+        // Heap input must work too
+        ByteBuf heap = Unpooled.buffer();
+        heap.writeBytes( original );
+        original.resetReaderIndex();
+        compressor.process( heap, compressed );
+        decompressor.process( compressed, decompressed );
+        Assert.assertEquals( original, decompressed );
+
+        // Output capped below the real size must fail instead of growing, and leave the stream usable
+        compressed.readerIndex( 0 );
+        try
+        {
+            decompressor.process( compressed, Unpooled.directBuffer( 1024, 1024 ) );
+            Assert.fail( "Inflating past the output limit should fail" );
+        } catch ( IndexOutOfBoundsException ex )
+        {
+        }
+        compressed.readerIndex( 0 );
+        decompressed.clear();
+        decompressor.process( compressed, decompressed );
+        Assert.assertEquals( original, decompressed );
+
+        compressor.free();
+        decompressor.free();
+
+        System.out.println( "This zlib works correctly!" );
+    }
+
+    public void testBenchmark(BungeeZlib compressor, BungeeZlib decompressor) throws Exception
+    {
+        compressor.init( true, Deflater.DEFAULT_COMPRESSION );
+        decompressor.init( false, 0 );
+
+        ByteBuf original = createData();
+        ByteBuf compressed = Unpooled.directBuffer();
+        ByteBuf decompressed = Unpooled.directBuffer();
+        double megabytes = (double) BENCHMARK_COUNT * original.readableBytes() / ( 1024 * 1024 );
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            original.resetReaderIndex();
+            compressed.clear();
+            compressor.process( original, compressed );
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.println( String.format( "Compression Iteration: %d, Elapsed: %d ms, %.1f MB/s", BENCHMARK_COUNT, elapsed / 1000000, megabytes / ( elapsed / 1e9 ) ) );
+
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            compressed.readerIndex( 0 );
+            decompressed.clear();
+            decompressor.process( compressed, decompressed );
+        }
+        elapsed = System.nanoTime() - start;
+        System.out.println( String.format( "Decompression Iteration: %d, Elapsed: %d ms, %.1f MB/s", BENCHMARK_COUNT, elapsed / 1000000, megabytes / ( elapsed / 1e9 ) ) );
+
+        compressor.free();
+        decompressor.free();
+    }
+}
@@ -146,6 +146,27 @@ public abstract class DefinedPacket
         }
     }
 
+    public static int getVarIntSize(int value)
+    {
+        if ( ( value & 0xFFFFFF80 ) == 0 )
+        {
+            return 1;
+        }
+        if ( ( value & 0xFFFFC000 ) == 0 )
+        {
+            return 2;
+        }
+        if ( ( value & 0xFFE00000 ) == 0 )
+        {
+            return 3;
+        }
+        if ( ( value & 0xF0000000 ) == 0 )
+        {
+            return 4;
+        }
+        return 5;
+    }
+
     public static int readVarShort(ByteBuf buf)
     {
         int low = buf.readUnsignedShort();
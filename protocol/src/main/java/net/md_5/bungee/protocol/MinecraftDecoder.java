@@ -21,24 +21,35 @@ public class MinecraftDecoder extends ByteToMessageDecoder
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception
     {
         Protocol.DirectionData prot = ( server ) ? protocol.TO_SERVER : protocol.TO_CLIENT;
-        ByteBuf copy = in.copy(); // TODO
+        // Pass the frame on as a retained view rather than a copy, anything which wants to grow it must copy it themselves
+        ByteBuf slice = in.slice().retain();
 
-        int packetId = DefinedPacket.readVarInt( in );
-
-        DefinedPacket packet = null;
-        if ( prot.hasPacket( packetId ) )
+        try
         {
-            packet = prot.createPacket( packetId );
-            packet.read( in, prot.getDirection(), protocolVersion );
-            if ( in.readableBytes() != 0 )
+            int packetId = DefinedPacket.readVarInt( in );
+
+            DefinedPacket packet = null;
+            if ( prot.hasPacket( packetId ) )
             {
-                throw new BadPacketException( "Did not read all bytes from packet " + packet.getClass() + " " + packetId + " Protocol " + protocol + " Direction " + prot );
+                packet = prot.createPacket( packetId );
+                packet.read( in, prot.getDirection(), protocolVersion );
+                if ( in.readableBytes() != 0 )
+                {
+                    throw new BadPacketException( "Did not read all bytes from packet " + packet.getClass() + " " + packetId + " Protocol " + protocol + " Direction " + prot );
+                }
+            } else
+            {
+                in.skipBytes( in.readableBytes() );
             }
-        } else
+
+            out.add( new PacketWrapper( packet, slice ) );
+            slice = null;
+        } finally
         {
-            in.skipBytes( in.readableBytes() );
+            if ( slice != null )
+            {
+                slice.release();
+            }
         }
-
-        out.add( new PacketWrapper( packet, copy ) );
     }
 }
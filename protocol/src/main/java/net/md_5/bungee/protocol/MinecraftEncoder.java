@@ -18,6 +18,22 @@ public class MinecraftEncoder extends MessageToByteEncoder<DefinedPacket>
 
     @Override
     protected void encode(ChannelHandlerContext ctx, DefinedPacket msg, ByteBuf out) throws Exception
+    {
+        encode( protocol, server, protocolVersion, msg, out );
+    }
+
+    /**
+     * Writes a packet exactly as an encoder with the given settings would,
+     * so the same bytes can be written to many channels. Channels pass such
+     * buffers straight through their encoder.
+     *
+     * @param protocol the protocol state of the receiving channels
+     * @param server whether the packet is sent by the server (to a client)
+     * @param protocolVersion the protocol version of the receiving channels
+     * @param msg the packet to encode
+     * @param out the buffer to write the packet id and data to
+     */
+    public static void encode(Protocol protocol, boolean server, int protocolVersion, DefinedPacket msg, ByteBuf out)
     {
         Protocol.DirectionData prot = ( server ) ? protocol.TO_CLIENT : protocol.TO_SERVER;
         DefinedPacket.writeVarInt( prot.getId( msg.getClass() ), out );
@@ -1,18 +1,38 @@
 package net.md_5.bungee.protocol;
 
 import io.netty.buffer.ByteBuf;
-import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
-@RequiredArgsConstructor
 public class PacketWrapper
 {
 
     public final DefinedPacket packet;
-    public final ByteBuf buf;
+    /**
+     * The raw packet, a retained view of the received frame. Handlers which
+     * need to grow the packet may replace this with their own buffer, in
+     * which case they are responsible for releasing the old one.
+     */
+    public ByteBuf buf;
+    /**
+     * Whether {@link #buf} is still the compressed frame as received, rather
+     * than the decompressed packet.
+     */
+    public final boolean compressed;
     @Setter
     private boolean released;
 
+    public PacketWrapper(DefinedPacket packet, ByteBuf buf)
+    {
+        this( packet, buf, false );
+    }
+
+    public PacketWrapper(DefinedPacket packet, ByteBuf buf, boolean compressed)
+    {
+        this.packet = packet;
+        this.buf = buf;
+        this.compressed = compressed;
+    }
+
     public void trySingleRelease()
     {
         if ( !released )
@@ -1,7 +1,6 @@
 package net.md_5.bungee.protocol;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.ByteToMessageDecoder;
 import io.netty.handler.codec.CorruptedFrameException;
@@ -14,34 +13,40 @@ public class Varint21FrameDecoder extends ByteToMessageDecoder
     @Override
     protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception
     {
-        in.markReaderIndex();
+        // Split off every complete frame in one pass, frames are retained views of the input rather than copies
+        int readerIndex = in.readerIndex();
+        int writerIndex = in.writerIndex();
 
-        final byte[] buf = new byte[ 3 ];
-        for ( int i = 0; i < buf.length; i++ )
+        while ( readerIndex < writerIndex )
         {
-            if ( !in.isReadable() )
+            int index = readerIndex;
+            int length = 0;
+            byte b;
+            do
             {
-                in.resetReaderIndex();
-                return;
-            }
-
-            buf[i] = in.readByte();
-            if ( buf[i] >= 0 )
-            {
-                int length = DefinedPacket.readVarInt( Unpooled.wrappedBuffer( buf ) );
-
-                if ( in.readableBytes() < length )
+                if ( index == writerIndex )
                 {
-                    in.resetReaderIndex();
+                    in.readerIndex( readerIndex );
                     return;
-                } else
+                }
+                if ( index - readerIndex == 3 )
                 {
-                    out.add( in.readBytes( length ) );
-                    return;
+                    throw new CorruptedFrameException( "length wider than 21-bit" );
                 }
+
+                b = in.getByte( index );
+                length |= ( b & 0x7F ) << ( ( index++ - readerIndex ) * 7 );
+            } while ( b < 0 );
+
+            if ( writerIndex - index < length )
+            {
+                break;
             }
+
+            out.add( in.slice( index, length ).retain() );
+            readerIndex = index + length;
         }
 
-        throw new CorruptedFrameException( "length wider than 21-bit" );
+        in.readerIndex( readerIndex );
     }
 }
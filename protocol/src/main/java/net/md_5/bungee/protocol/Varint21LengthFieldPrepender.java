@@ -2,42 +2,29 @@ package net.md_5.bungee.protocol;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
-import io.netty.handler.codec.MessageToByteEncoder;
+import io.netty.handler.codec.MessageToMessageEncoder;
 import io.netty.channel.ChannelHandler;
+import java.util.List;
 
+/**
+ * Prepends the length of each packet as a separate header buffer, the packet
+ * itself is passed on as is so that its bytes are never copied just to frame
+ * them.
+ */
 @ChannelHandler.Sharable
-public class Varint21LengthFieldPrepender extends MessageToByteEncoder<ByteBuf>
+public class Varint21LengthFieldPrepender extends MessageToMessageEncoder<ByteBuf>
 {
 
     @Override
-    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, List<Object> out) throws Exception
     {
         int bodyLen = msg.readableBytes();
-        int headerLen = varintSize( bodyLen );
-        out.ensureWritable( headerLen + bodyLen );
+        int headerLen = DefinedPacket.getVarIntSize( bodyLen );
 
-        DefinedPacket.writeVarInt( bodyLen, out );
-        out.writeBytes( msg );
-    }
+        ByteBuf header = ctx.alloc().ioBuffer( headerLen );
+        DefinedPacket.writeVarInt( bodyLen, header );
 
-    private static int varintSize(int paramInt)
-    {
-        if ( ( paramInt & 0xFFFFFF80 ) == 0 )
-        {
-            return 1;
-        }
-        if ( ( paramInt & 0xFFFFC000 ) == 0 )
-        {
-            return 2;
-        }
-        if ( ( paramInt & 0xFFE00000 ) == 0 )
-        {
-            return 3;
-        }
-        if ( ( paramInt & 0xF0000000 ) == 0 )
-        {
-            return 4;
-        }
-        return 5;
+        out.add( header );
+        out.add( msg.retain() );
     }
 }
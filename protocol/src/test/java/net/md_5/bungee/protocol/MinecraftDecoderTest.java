@@ -0,0 +1,185 @@
+package net.md_5.bungee.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.DecoderException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Random;
+import net.md_5.bungee.protocol.packet.Chat;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MinecraftDecoderTest
+{
+
+    private static final int BENCHMARK_COUNT = 2000000;
+
+    private static int unknownPacketId()
+    {
+        for ( int id = 0; id < Protocol.MAX_PACKET_ID; id++ )
+        {
+            if ( !Protocol.GAME.TO_CLIENT.hasPacket( id ) )
+            {
+                return id;
+            }
+        }
+        throw new AssertionError( "Every packet id is registered" );
+    }
+
+    private static ByteBuf frame(int packetId, int length)
+    {
+        ByteBuf buf = Unpooled.buffer();
+        DefinedPacket.writeVarInt( packetId, buf );
+        for ( int i = 0; i < length; i++ )
+        {
+            buf.writeByte( i );
+        }
+        return buf;
+    }
+
+    private static EmbeddedChannel channel()
+    {
+        return new EmbeddedChannel( new MinecraftDecoder( Protocol.GAME, false, ProtocolConstants.MINECRAFT_SNAPSHOT ) );
+    }
+
+    @Test
+    public void testUnknownPacketSlice()
+    {
+        EmbeddedChannel channel = channel();
+        ByteBuf frame = frame( unknownPacketId(), 100 );
+        ByteBuf expected = frame.copy();
+
+        channel.writeInbound( frame );
+        PacketWrapper wrapper = (PacketWrapper) channel.readInbound();
+
+        Assert.assertNull( wrapper.packet );
+        Assert.assertEquals( expected, wrapper.buf );
+        Assert.assertSame( "Frame should be passed on rather than copied", frame, wrapper.buf.unwrap() );
+        Assert.assertEquals( "Slice should hold the only reference to the frame", 1, frame.refCnt() );
+
+        wrapper.trySingleRelease();
+        Assert.assertEquals( 0, frame.refCnt() );
+    }
+
+    @Test
+    public void testKnownPacketSlice()
+    {
+        EmbeddedChannel channel = channel();
+        ByteBuf frame = Unpooled.buffer();
+        DefinedPacket.writeVarInt( Protocol.GAME.TO_CLIENT.getId( Chat.class ), frame );
+        new Chat( "{\"text\":\"hello\"}" ).write( frame, ProtocolConstants.Direction.TO_CLIENT, ProtocolConstants.MINECRAFT_SNAPSHOT );
+        ByteBuf expected = frame.copy();
+
+        channel.writeInbound( frame );
+        PacketWrapper wrapper = (PacketWrapper) channel.readInbound();
+
+        Assert.assertEquals( "{\"text\":\"hello\"}", ( (Chat) wrapper.packet ).getMessage() );
+        Assert.assertEquals( "Slice should cover the whole frame", expected, wrapper.buf );
+        Assert.assertSame( frame, wrapper.buf.unwrap() );
+
+        wrapper.trySingleRelease();
+        Assert.assertEquals( 0, frame.refCnt() );
+    }
+
+    @Test
+    public void testBadPacketReleasesSlice()
+    {
+        EmbeddedChannel channel = channel();
+        ByteBuf frame = Unpooled.buffer();
+        DefinedPacket.writeVarInt( Protocol.GAME.TO_CLIENT.getId( Chat.class ), frame );
+        new Chat( "{}" ).write( frame, ProtocolConstants.Direction.TO_CLIENT, ProtocolConstants.MINECRAFT_SNAPSHOT );
+        frame.writeInt( 0 );
+
+        try
+        {
+            channel.writeInbound( frame );
+            Assert.fail( "Trailing bytes should be rejected" );
+        } catch ( DecoderException ex )
+        {
+            Assert.assertTrue( ex.getCause() instanceof BadPacketException );
+        }
+        // Only the decoder's own cumulation may still hold the frame
+        Assert.assertEquals( 1, frame.refCnt() );
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        // Mostly small unhandled packets, as entity movement makes up most game traffic
+        Random random = new Random( 0 );
+        int packetId = unknownPacketId();
+        ByteBuf[] frames = new ByteBuf[ 1024 ];
+        for ( int i = 0; i < frames.length; i++ )
+        {
+            frames[i] = frame( packetId, ( random.nextInt( 10 ) < 9 ) ? 5 + random.nextInt( 30 ) : 100 + random.nextInt( 400 ) );
+        }
+
+        System.out.println( "Benchmarking copying decoder..." );
+        benchmark( frames, new CopyingDecoder() );
+        System.out.println( "Benchmarking decoder..." );
+        benchmark( frames, new MinecraftDecoder( Protocol.GAME, false, ProtocolConstants.MINECRAFT_SNAPSHOT ) );
+    }
+
+    private static void benchmark(ByteBuf[] frames, ChannelHandler decoder)
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( decoder );
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            ByteBuf frame = frames[i & ( frames.length - 1 )];
+            channel.writeInbound( frame.duplicate().retain() );
+            ( (PacketWrapper) channel.readInbound() ).trySingleRelease();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+
+        System.out.println( String.format( "Packets: %d, Elapsed: %d ms, %.0f packets/s, %.1f bytes allocated/packet", BENCHMARK_COUNT, elapsed / 1000000, BENCHMARK_COUNT / ( elapsed / 1e9 ), (double) allocated / BENCHMARK_COUNT ) );
+    }
+
+    private static long allocatedBytes()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if ( bean instanceof com.sun.management.ThreadMXBean )
+        {
+            return ( (com.sun.management.ThreadMXBean) bean ).getThreadAllocatedBytes( Thread.currentThread().getId() );
+        }
+        return 0;
+    }
+
+    /**
+     * The previous implementation, kept as a baseline for the benchmark.
+     */
+    private static class CopyingDecoder extends ByteToMessageDecoder
+    {
+
+        private final Protocol.DirectionData prot = Protocol.GAME.TO_CLIENT;
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception
+        {
+            ByteBuf copy = in.copy();
+
+            int packetId = DefinedPacket.readVarInt( in );
+
+            DefinedPacket packet = null;
+            if ( prot.hasPacket( packetId ) )
+            {
+                packet = prot.createPacket( packetId );
+                packet.read( in, prot.getDirection(), ProtocolConstants.MINECRAFT_SNAPSHOT );
+            } else
+            {
+                in.skipBytes( in.readableBytes() );
+            }
+
+            out.add( new PacketWrapper( packet, copy ) );
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package net.md_5.bungee.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import net.md_5.bungee.protocol.packet.Chat;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MinecraftEncoderTest
+{
+
+    private static final int CHANNELS = 1000;
+    private static final int BENCHMARK_COUNT = 100;
+    private static final Chat MESSAGE = new Chat( "{\"text\":\"The server will restart in 5 minutes\",\"color\":\"gold\"}" );
+
+    private static EmbeddedChannel channel(int protocolVersion)
+    {
+        return new EmbeddedChannel( new MinecraftEncoder( Protocol.GAME, true, protocolVersion ) );
+    }
+
+    private static ByteBuf readAll(EmbeddedChannel channel)
+    {
+        ByteBuf all = Unpooled.buffer();
+        Object msg;
+        while ( ( msg = channel.readOutbound() ) != null )
+        {
+            all.writeBytes( (ByteBuf) msg );
+            ( (ByteBuf) msg ).release();
+        }
+        return all;
+    }
+
+    @Test
+    public void testPreEncoded()
+    {
+        for ( int version : new int[]
+        {
+            ProtocolConstants.MINECRAFT_1_7_2, ProtocolConstants.MINECRAFT_SNAPSHOT
+        } )
+        {
+            EmbeddedChannel encoding = channel( version );
+            encoding.writeOutbound( MESSAGE );
+
+            ByteBuf shared = Unpooled.buffer();
+            MinecraftEncoder.encode( Protocol.GAME, true, version, MESSAGE, shared );
+            EmbeddedChannel first = channel( version );
+            EmbeddedChannel second = channel( version );
+            first.writeOutbound( shared.duplicate().retain() );
+            second.writeOutbound( shared.duplicate().retain() );
+
+            ByteBuf expected = readAll( encoding );
+            Assert.assertEquals( expected, readAll( first ) );
+            Assert.assertEquals( "Duplicates must not share reader indexes", expected, readAll( second ) );
+            Assert.assertTrue( shared.release() );
+        }
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        EmbeddedChannel[] channels = new EmbeddedChannel[ CHANNELS ];
+        for ( int i = 0; i < CHANNELS; i++ )
+        {
+            channels[i] = channel( ProtocolConstants.MINECRAFT_SNAPSHOT );
+        }
+
+        System.out.println( "Broadcasting to " + CHANNELS + " channels, encoding per channel..." );
+        long start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            for ( EmbeddedChannel channel : channels )
+            {
+                channel.writeOutbound( MESSAGE );
+                ( (ByteBuf) channel.readOutbound() ).release();
+            }
+        }
+        System.out.println( String.format( "Broadcasts: %d, Elapsed: %d ms", BENCHMARK_COUNT, ( System.nanoTime() - start ) / 1000000 ) );
+
+        System.out.println( "Broadcasting to " + CHANNELS + " channels, encoding once..." );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            ByteBuf shared = PooledByteBufAllocator.DEFAULT.directBuffer();
+            MinecraftEncoder.encode( Protocol.GAME, true, ProtocolConstants.MINECRAFT_SNAPSHOT, MESSAGE, shared );
+            for ( EmbeddedChannel channel : channels )
+            {
+                channel.writeOutbound( shared.duplicate().retain() );
+                ( (ByteBuf) channel.readOutbound() ).release();
+            }
+            shared.release();
+        }
+        System.out.println( String.format( "Broadcasts: %d, Elapsed: %d ms", BENCHMARK_COUNT, ( System.nanoTime() - start ) / 1000000 ) );
+    }
+}
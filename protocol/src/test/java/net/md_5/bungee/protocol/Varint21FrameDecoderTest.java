@@ -0,0 +1,209 @@
+package net.md_5.bungee.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.ByteToMessageDecoder;
+import io.netty.handler.codec.CorruptedFrameException;
+import io.netty.handler.codec.DecoderException;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Varint21FrameDecoderTest
+{
+
+    private static final int BENCHMARK_COUNT = 200;
+    private static final int SEGMENT_SIZE = 1460;
+
+    private static ByteBuf frame(int length, int fill)
+    {
+        ByteBuf buf = Unpooled.buffer();
+        DefinedPacket.writeVarInt( length, buf );
+        for ( int i = 0; i < length; i++ )
+        {
+            buf.writeByte( fill );
+        }
+        return buf;
+    }
+
+    private static List<ByteBuf> decode(ChannelHandler decoder, ByteBuf... segments)
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( decoder );
+        for ( ByteBuf segment : segments )
+        {
+            channel.writeInbound( segment );
+        }
+
+        List<ByteBuf> frames = new ArrayList<>();
+        ByteBuf frame;
+        while ( ( frame = (ByteBuf) channel.readInbound() ) != null )
+        {
+            frames.add( frame );
+        }
+        channel.finish();
+        return frames;
+    }
+
+    @Test
+    public void testManyFramesPerRead()
+    {
+        ByteBuf in = Unpooled.buffer();
+        in.writeBytes( frame( 1, 1 ) ).writeBytes( frame( 300, 2 ) ).writeBytes( frame( 0x10000, 3 ) );
+
+        List<ByteBuf> frames = decode( new Varint21FrameDecoder(), in );
+        Assert.assertEquals( 3, frames.size() );
+        Assert.assertEquals( frame( 300, 2 ).skipBytes( 2 ), frames.get( 1 ) );
+        Assert.assertEquals( 0x10000, frames.get( 2 ).readableBytes() );
+        for ( ByteBuf frame : frames )
+        {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testSplitFrames()
+    {
+        // Split in the middle of the length and of the body
+        ByteBuf in = frame( 300, 7 ).writeBytes( frame( 5, 8 ) );
+        List<ByteBuf> frames = decode( new Varint21FrameDecoder(), in.readSlice( 1 ).retain(), in.readSlice( 100 ).retain(), in.readSlice( in.readableBytes() ) );
+
+        Assert.assertEquals( 2, frames.size() );
+        Assert.assertEquals( frame( 300, 7 ).skipBytes( 2 ), frames.get( 0 ) );
+        Assert.assertEquals( frame( 5, 8 ).skipBytes( 1 ), frames.get( 1 ) );
+        for ( ByteBuf frame : frames )
+        {
+            frame.release();
+        }
+    }
+
+    @Test
+    public void testTooWide()
+    {
+        try
+        {
+            decode( new Varint21FrameDecoder(), Unpooled.wrappedBuffer( new byte[]
+            {
+                (byte) 0x80, (byte) 0x80, (byte) 0x80, 0x01
+            } ) );
+            Assert.fail( "Length wider than 21 bits was accepted" );
+        } catch ( DecoderException ex )
+        {
+            Assert.assertTrue( ex instanceof CorruptedFrameException );
+        }
+    }
+
+    /**
+     * Builds a stream resembling clientbound game traffic: mostly small
+     * entity movement packets with occasional chunk sized ones.
+     */
+    private static ByteBuf recordTraffic()
+    {
+        Random random = new Random( 0 );
+        ByteBuf traffic = Unpooled.buffer();
+        while ( traffic.readableBytes() < ( 1 << 20 ) )
+        {
+            int roll = random.nextInt( 100 );
+            int length = ( roll < 90 ) ? 5 + random.nextInt( 30 ) : ( roll < 99 ) ? 100 + random.nextInt( 400 ) : 10000 + random.nextInt( 50000 );
+            traffic.writeBytes( frame( length, roll ) );
+        }
+        return traffic;
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        ByteBuf traffic = recordTraffic();
+
+        System.out.println( "Benchmarking legacy frame decoder..." );
+        benchmark( traffic, new LegacyFrameDecoder() );
+        System.out.println( "Benchmarking frame decoder..." );
+        benchmark( traffic, new Varint21FrameDecoder() );
+    }
+
+    private static void benchmark(ByteBuf traffic, ChannelHandler decoder)
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( decoder );
+        long frames = 0;
+        long allocated = allocatedBytes();
+        long start = System.nanoTime();
+
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            // Deliver the traffic in socket sized reads
+            for ( int index = 0; index < traffic.writerIndex(); index += SEGMENT_SIZE )
+            {
+                channel.writeInbound( traffic.slice( index, Math.min( SEGMENT_SIZE, traffic.writerIndex() - index ) ).retain() );
+
+                Object frame;
+                while ( ( frame = channel.readInbound() ) != null )
+                {
+                    ( (ByteBuf) frame ).release();
+                    frames++;
+                }
+            }
+        }
+
+        long elapsed = System.nanoTime() - start;
+        allocated = allocatedBytes() - allocated;
+        channel.finish();
+
+        System.out.println( String.format( "Frames: %d, Elapsed: %d ms, %.0f frames/s, %.1f bytes allocated/frame", frames, elapsed / 1000000, frames / ( elapsed / 1e9 ), (double) allocated / frames ) );
+    }
+
+    private static long allocatedBytes()
+    {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if ( bean instanceof com.sun.management.ThreadMXBean )
+        {
+            return ( (com.sun.management.ThreadMXBean) bean ).getThreadAllocatedBytes( Thread.currentThread().getId() );
+        }
+        return 0;
+    }
+
+    /**
+     * The previous implementation, kept as a baseline for the benchmark.
+     */
+    private static class LegacyFrameDecoder extends ByteToMessageDecoder
+    {
+
+        @Override
+        protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception
+        {
+            in.markReaderIndex();
+
+            final byte[] buf = new byte[ 3 ];
+            for ( int i = 0; i < buf.length; i++ )
+            {
+                if ( !in.isReadable() )
+                {
+                    in.resetReaderIndex();
+                    return;
+                }
+
+                buf[i] = in.readByte();
+                if ( buf[i] >= 0 )
+                {
+                    int length = DefinedPacket.readVarInt( Unpooled.wrappedBuffer( buf ) );
+
+                    if ( in.readableBytes() < length )
+                    {
+                        in.resetReaderIndex();
+                        return;
+                    } else
+                    {
+                        out.add( in.readBytes( length ) );
+                        return;
+                    }
+                }
+            }
+
+            throw new CorruptedFrameException( "length wider than 21-bit" );
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package net.md_5.bungee.protocol;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.MessageToByteEncoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class Varint21LengthFieldPrependerTest
+{
+
+    private static final int BENCHMARK_COUNT = 1000000;
+
+    private static ByteBuf body(int length)
+    {
+        ByteBuf buf = Unpooled.buffer( length );
+        for ( int i = 0; i < length; i++ )
+        {
+            buf.writeByte( i );
+        }
+        return buf;
+    }
+
+    private static ByteBuf readAll(EmbeddedChannel channel)
+    {
+        ByteBuf all = Unpooled.buffer();
+        Object msg;
+        while ( ( msg = channel.readOutbound() ) != null )
+        {
+            all.writeBytes( (ByteBuf) msg );
+            ( (ByteBuf) msg ).release();
+        }
+        return all;
+    }
+
+    @Test
+    public void testFraming()
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( new Varint21LengthFieldPrepender() );
+
+        for ( int length : new int[]
+        {
+            0, 1, 127, 128, 300, 0x4000
+        } )
+        {
+            ByteBuf body = body( length );
+            ByteBuf expected = body.copy();
+            channel.writeOutbound( body.retain() );
+            Assert.assertEquals( "Body should be passed on rather than copied", 2, body.refCnt() );
+
+            ByteBuf framed = readAll( channel );
+            Assert.assertEquals( length, DefinedPacket.readVarInt( framed ) );
+            Assert.assertEquals( expected, framed );
+            body.release();
+        }
+
+        channel.finish();
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        System.out.println( "Benchmarking copying prepender..." );
+        benchmark( new CopyingPrepender() );
+        System.out.println( "Benchmarking prepender..." );
+        benchmark( new Varint21LengthFieldPrepender() );
+    }
+
+    private static void benchmark(ChannelHandler prepender)
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( prepender );
+        channel.config().setOption( ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT );
+
+        // Mix of movement sized and chunk sized packets
+        ByteBuf small = body( 24 );
+        ByteBuf large = body( 8192 );
+        long bytes = 0;
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            ByteBuf body = ( i % 50 == 0 ) ? large : small;
+            bytes += body.readableBytes();
+            channel.writeOutbound( body.duplicate().retain() );
+
+            Object msg;
+            while ( ( msg = channel.readOutbound() ) != null )
+            {
+                ( (ByteBuf) msg ).release();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        channel.finish();
+
+        System.out.println( String.format( "Packets: %d, Elapsed: %d ms, %.1f MB/s", BENCHMARK_COUNT, elapsed / 1000000, bytes / ( 1024.0 * 1024.0 ) / ( elapsed / 1e9 ) ) );
+    }
+
+    /**
+     * The previous implementation, kept as a baseline for the benchmark.
+     */
+    @ChannelHandler.Sharable
+    private static class CopyingPrepender extends MessageToByteEncoder<ByteBuf>
+    {
+
+        @Override
+        protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception
+        {
+            int bodyLen = msg.readableBytes();
+            out.ensureWritable( DefinedPacket.getVarIntSize( bodyLen ) + bodyLen );
+
+            DefinedPacket.writeVarInt( bodyLen, out );
+            out.writeBytes( msg );
+        }
+    }
+}
@@ -2,10 +2,7 @@ package net.md_5.bungee;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Preconditions;
-import com.google.common.base.Predicate;
-import com.google.common.collect.Iterables;
 import com.google.common.collect.Lists;
-import com.google.common.collect.Sets;
 import com.google.gson.GsonBuilder;
 import net.md_5.bungee.api.Favicon;
 import net.md_5.bungee.api.ServerPing;
@@ -20,12 +17,14 @@ import net.md_5.bungee.scheduler.BungeeScheduler;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import com.google.gson.Gson;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
-import io.netty.bootstrap.ServerBootstrap;
+import gnu.trove.map.TIntObjectMap;
+import gnu.trove.map.hash.TIntObjectHashMap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
 import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
-import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.util.ResourceLeakDetector;
 import net.md_5.bungee.conf.Configuration;
@@ -37,7 +36,6 @@ import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Locale;
 import java.util.Map;
@@ -47,8 +45,6 @@ import java.util.Timer;
 import java.util.TimerTask;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.logging.Handler;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -67,18 +63,20 @@ import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.plugin.Plugin;
 import net.md_5.bungee.api.plugin.PluginManager;
+import net.md_5.bungee.compress.CompressionMonitor;
 import net.md_5.bungee.command.*;
 import net.md_5.bungee.conf.YamlConfig;
 import net.md_5.bungee.forge.ForgeConstants;
 import net.md_5.bungee.log.LoggingOutputStream;
+import net.md_5.bungee.netty.BroadcastDispatcher;
 import net.md_5.bungee.netty.PipelineUtils;
 import net.md_5.bungee.protocol.DefinedPacket;
+import net.md_5.bungee.protocol.MinecraftEncoder;
 import net.md_5.bungee.protocol.Protocol;
 import net.md_5.bungee.protocol.ProtocolConstants;
 import net.md_5.bungee.protocol.packet.Chat;
 import net.md_5.bungee.protocol.packet.PluginMessage;
 import net.md_5.bungee.query.RemoteQuery;
-import net.md_5.bungee.util.CaseInsensitiveMap;
 import org.fusesource.jansi.AnsiConsole;
 
 /**
@@ -101,6 +99,11 @@ public class BungeeCord extends ProxyServer
      */
     public ResourceBundle bundle;
     public EventLoopGroup eventLoops;
+    /**
+     * Compression statistics and adaptive level controller.
+     */
+    @Getter
+    private CompressionMonitor compressionMonitor;
     /**
      * locations.yml save thread.
      */
@@ -109,14 +112,11 @@ public class BungeeCord extends ProxyServer
     /**
      * Server socket listener.
      */
-    private final Collection<Channel> listeners = new HashSet<>();
+    private final Collection<Channel> listeners = Collections.synchronizedSet( new HashSet<Channel>() );
     /**
      * Fully qualified connections.
      */
-    private final Map<String, UserConnection> connections = new CaseInsensitiveMap<>();
-    // Used to help with packet rewriting
-    private final Map<UUID, UserConnection> connectionsByOfflineUUID = new HashMap<>();
-    private final ReadWriteLock connectionLock = new ReentrantReadWriteLock();
+    private final PlayerRegistry connections = new PlayerRegistry();
     /**
      * Plugin manager.
      */
@@ -145,6 +145,8 @@ public class BungeeCord extends ProxyServer
             .registerTypeAdapter( Favicon.class, Favicon.getFaviconTypeAdapter() ).create();
     @Getter
     private ConnectionThrottle connectionThrottle;
+    @Getter
+    private LoginAdmission loginAdmission;
     private final ModuleManager moduleManager = new ModuleManager();
 
     
@@ -202,6 +204,13 @@ public class BungeeCord extends ProxyServer
         {
             logger.info( "Using standard Java JCE cipher. To enable the OpenSSL based native cipher, please make sure you are using 64 bit Ubuntu or Debian with libssl installed." );
         }
+        if ( NativeZlib.load() )
+        {
+            logger.info( "Using native zlib based compressor." );
+        } else
+        {
+            logger.info( "Using standard Java compressor. To enable the native compressor, please make sure you are using 64 bit Linux with zlib installed." );
+        }
     }
 
     /**
@@ -218,6 +227,7 @@ public class BungeeCord extends ProxyServer
         System.setProperty( "io.netty.selectorAutoRebuildThreshold", "0" ); // Seems to cause Bungee to stop accepting connections
         ResourceLeakDetector.setEnabled( false ); // Eats performance
 
+        PipelineUtils.logTransport( getLogger() );
         eventLoops = PipelineUtils.newEventLoopGroup( 0, new ThreadFactoryBuilder().setNameFormat( "Netty IO Thread #%1$d" ).build() );
 
         File moduleDirectory = new File( "modules" );
@@ -235,6 +245,18 @@ public class BungeeCord extends ProxyServer
         pluginManager.enablePlugins();
 
         connectionThrottle = new ConnectionThrottle( config.getThrottle() );
+        loginAdmission = new LoginAdmission( config.getLoginConcurrency(), config.getLoginQueue(), config.getLoginQueueTimeout(),
+                config.getLoginAddressRate(), config.getLoginSubnetRate() );
+        compressionMonitor = new CompressionMonitor( eventLoops, config.getCompressionTarget() / 100.0 );
+        eventLoops.scheduleAtFixedRate( compressionMonitor, 1, 1, TimeUnit.SECONDS );
+        eventLoops.scheduleAtFixedRate( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                connectionThrottle.cleanup();
+            }
+        }, 1, 1, TimeUnit.MINUTES );
         startListeners();
 
         saveThread.scheduleAtFixedRate( new TimerTask()
@@ -270,14 +292,7 @@ public class BungeeCord extends ProxyServer
                     }
                 }
             };
-            new ServerBootstrap()
-                    .channel( PipelineUtils.getServerChannel() )
-                    .option( ChannelOption.SO_REUSEADDR, true ) // TODO: Move this elsewhere!
-                    .childAttr( PipelineUtils.LISTENER, info )
-                    .childHandler( PipelineUtils.SERVER_CHILD )
-                    .group( eventLoops )
-                    .localAddress( info.getHost() )
-                    .bind().addListener( listener );
+            PipelineUtils.bindListener( info, eventLoops, PipelineUtils.SERVER_CHILD, listener );
 
             if ( info.isQueryEnabled() )
             {
@@ -332,17 +347,11 @@ public class BungeeCord extends ProxyServer
                 stopListeners();
                 getLogger().info( "Closing pending connections" );
 
-                connectionLock.readLock().lock();
-                try
-                {
-                    getLogger().log( Level.INFO, "Disconnecting {0} connections", connections.size() );
-                    for ( UserConnection user : connections.values() )
-                    {
-                        user.disconnect( getTranslation( "restart" ) );
-                    }
-                } finally
+                Collection<ProxiedPlayer> players = connections.getPlayers();
+                getLogger().log( Level.INFO, "Disconnecting {0} connections", players.size() );
+                for ( ProxiedPlayer user : players )
                 {
-                    connectionLock.readLock().unlock();
+                    user.disconnect( getTranslation( "restart" ) );
                 }
 
                 getLogger().info( "Closing IO threads" );
@@ -400,16 +409,49 @@ public class BungeeCord extends ProxyServer
      */
     public void broadcast(DefinedPacket packet)
     {
-        connectionLock.readLock().lock();
+        // Encode once per protocol version, then every player on that version shares the bytes
+        TIntObjectMap<ByteBuf> encoded = new TIntObjectHashMap<>();
+        BroadcastDispatcher dispatcher = new BroadcastDispatcher();
         try
         {
-            for ( UserConnection con : connections.values() )
+            for ( ProxiedPlayer player : connections.getPlayers() )
             {
-                con.unsafe().sendPacket( packet );
+                UserConnection con = (UserConnection) player;
+                int version = con.getPendingConnection().getVersion();
+                ByteBuf buf = encoded.get( version );
+                if ( buf == null && !encoded.containsKey( version ) )
+                {
+                    buf = encode( packet, version );
+                    encoded.put( version, buf );
+                }
+
+                dispatcher.add( con.getCh(), ( buf != null ) ? buf.duplicate().retain() : packet );
             }
+            dispatcher.dispatch();
         } finally
         {
-            connectionLock.readLock().unlock();
+            for ( ByteBuf buf : encoded.valueCollection() )
+            {
+                if ( buf != null )
+                {
+                    buf.release();
+                }
+            }
+        }
+    }
+
+    private static ByteBuf encode(DefinedPacket packet, int protocolVersion)
+    {
+        ByteBuf buf = PooledByteBufAllocator.DEFAULT.directBuffer();
+        try
+        {
+            MinecraftEncoder.encode( Protocol.GAME, true, protocolVersion, packet, buf );
+            return buf;
+        } catch ( RuntimeException ex )
+        {
+            // Not valid for this version, leave each channel's encoder to report it as before
+            buf.release();
+            return null;
         }
     }
 
@@ -439,17 +481,9 @@ public class BungeeCord extends ProxyServer
     }
 
     @Override
-    @SuppressWarnings("unchecked")
     public Collection<ProxiedPlayer> getPlayers()
     {
-        connectionLock.readLock().lock();
-        try
-        {
-            return Collections.unmodifiableCollection( new HashSet( connections.values() ) );
-        } finally
-        {
-            connectionLock.readLock().unlock();
-        }
+        return connections.getPlayers();
     }
 
     @Override
@@ -461,47 +495,18 @@ public class BungeeCord extends ProxyServer
     @Override
     public ProxiedPlayer getPlayer(String name)
     {
-        connectionLock.readLock().lock();
-        try
-        {
-            return connections.get( name );
-        } finally
-        {
-            connectionLock.readLock().unlock();
-        }
+        return connections.get( name );
     }
 
     public UserConnection getPlayerByOfflineUUID(UUID name)
     {
-        connectionLock.readLock().lock();
-        try
-        {
-            return connectionsByOfflineUUID.get( name );
-        } finally
-        {
-            connectionLock.readLock().unlock();
-        }
+        return (UserConnection) connections.getByOfflineId( name );
     }
 
     @Override
     public ProxiedPlayer getPlayer(UUID uuid)
     {
-        connectionLock.readLock().lock();
-        try
-        {
-            for ( ProxiedPlayer proxiedPlayer : connections.values() )
-            {
-                if ( proxiedPlayer.getUniqueId().equals( uuid ) )
-                {
-                    return proxiedPlayer;
-                }
-            }
-
-            return null;
-        } finally
-        {
-            connectionLock.readLock().unlock();
-        }
+        return connections.get( uuid );
     }
 
     @Override
@@ -588,32 +593,12 @@ public class BungeeCord extends ProxyServer
 
     public void addConnection(UserConnection con)
     {
-        connectionLock.writeLock().lock();
-        try
-        {
-            connections.put( con.getName(), con );
-            connectionsByOfflineUUID.put( con.getPendingConnection().getOfflineId(), con );
-        } finally
-        {
-            connectionLock.writeLock().unlock();
-        }
+        connections.add( con, con.getPendingConnection().getOfflineId() );
     }
 
     public void removeConnection(UserConnection con)
     {
-        connectionLock.writeLock().lock();
-        try
-        {
-            // TODO See #1218
-            if ( connections.get( con.getName() ) == con )
-            {
-                connections.remove( con.getName() );
-                connectionsByOfflineUUID.remove( con.getPendingConnection().getOfflineId() );
-            }
-        } finally
-        {
-            connectionLock.writeLock().unlock();
-        }
+        connections.remove( con, con.getPendingConnection().getOfflineId() );
     }
 
     @Override
@@ -633,15 +618,16 @@ public class BungeeCord extends ProxyServer
             return Collections.singleton( exactMatch );
         }
 
-        return Sets.newHashSet( Iterables.find( getPlayers(), new Predicate<ProxiedPlayer>()
-        {
+        return connections.matchSubstring( partialName, Integer.MAX_VALUE );
+    }
 
-            @Override
-            public boolean apply(ProxiedPlayer input)
-            {
-                return ( input == null ) ? false : input.getName().toLowerCase().contains( partialName.toLowerCase() );
-            }
-        } ) );
+    @Override
+    public Collection<ProxiedPlayer> matchPlayerPrefix(String prefix, int limit)
+    {
+        Preconditions.checkNotNull( prefix, "prefix" );
+        Preconditions.checkArgument( limit >= 0, "limit must not be negative" );
+
+        return connections.matchPrefix( prefix, limit );
     }
 
     @Override
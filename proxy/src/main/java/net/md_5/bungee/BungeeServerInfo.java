@@ -6,16 +6,16 @@ import io.netty.channel.ChannelFuture;
 import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelOption;
 import java.net.InetSocketAddress;
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
-import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.Objects;
 import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
-import lombok.Synchronized;
 import lombok.ToString;
 import net.md_5.bungee.api.Callback;
 import net.md_5.bungee.api.CommandSender;
@@ -42,7 +42,8 @@ public class BungeeServerInfo implements ServerInfo
     private final String name;
     @Getter
     private final InetSocketAddress address;
-    private final Collection<ProxiedPlayer> players = new ArrayList<>();
+    private final Set<ProxiedPlayer> players = Collections.newSetFromMap( new ConcurrentHashMap<ProxiedPlayer, Boolean>() );
+    private final Collection<ProxiedPlayer> playersView = Collections.unmodifiableCollection( players );
     @Getter
     private final String motd;
     @Getter
@@ -50,23 +51,26 @@ public class BungeeServerInfo implements ServerInfo
     @Getter
     private final Queue<DefinedPacket> packetQueue = new LinkedList<>();
 
-    @Synchronized("players")
     public void addPlayer(ProxiedPlayer player)
     {
         players.add( player );
     }
 
-    @Synchronized("players")
     public void removePlayer(ProxiedPlayer player)
     {
         players.remove( player );
     }
 
-    @Synchronized("players")
     @Override
     public Collection<ProxiedPlayer> getPlayers()
     {
-        return Collections.unmodifiableCollection( new HashSet( players ) );
+        return playersView;
+    }
+
+    @Override
+    public int getPlayerCount()
+    {
+        return players.size();
     }
 
     @Override
@@ -103,7 +107,9 @@ public class BungeeServerInfo implements ServerInfo
 
         synchronized ( packetQueue )
         {
-            Server server = ( players.isEmpty() ) ? null : players.iterator().next().getServer();
+            // Players may leave between checking and fetching, so only ask once
+            Iterator<ProxiedPlayer> iterator = players.iterator();
+            Server server = ( iterator.hasNext() ) ? iterator.next().getServer() : null;
             if ( server != null )
             {
                 server.sendData( channel, data );
@@ -1,28 +1,162 @@
 package net.md_5.bungee;
 
+import gnu.trove.map.hash.TIntLongHashMap;
+import gnu.trove.procedure.TIntLongProcedure;
 import java.net.InetAddress;
-import java.util.HashMap;
-import java.util.Map;
-import lombok.RequiredArgsConstructor;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 
-@RequiredArgsConstructor
+/**
+ * Remembers when each address last connected. Addresses are kept as a single
+ * int (IPv6 addresses are hashed down) in lock striped primitive maps, entries
+ * are dropped once older than the throttle time, and the total size is capped.
+ */
 public class ConnectionThrottle
 {
 
-    private final Map<InetAddress, Long> throttle = new HashMap<>();
+    private static final int STRIPES = 16;
+    //
+    private final TIntLongHashMap[] stripes = new TIntLongHashMap[ STRIPES ];
     private final int throttleTime;
+    private final int maxStripeSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public ConnectionThrottle(int throttleTime)
+    {
+        this( throttleTime, 1 << 20 );
+    }
+
+    /**
+     * @param throttleTime time (ms) an address must wait between connections
+     * @param maxSize the most addresses remembered at once
+     */
+    public ConnectionThrottle(int throttleTime, int maxSize)
+    {
+        this.throttleTime = throttleTime;
+        this.maxStripeSize = Math.max( maxSize / STRIPES, 1 );
+        for ( int i = 0; i < STRIPES; i++ )
+        {
+            stripes[i] = new TIntLongHashMap();
+        }
+    }
+
+    private static int getKey(InetAddress address)
+    {
+        byte[] bytes = address.getAddress();
+        if ( bytes.length == 4 )
+        {
+            return ( bytes[0] & 0xFF ) << 24 | ( bytes[1] & 0xFF ) << 16 | ( bytes[2] & 0xFF ) << 8 | ( bytes[3] & 0xFF );
+        }
+        return Arrays.hashCode( bytes );
+    }
+
+    private TIntLongHashMap getStripe(int key)
+    {
+        // Spread sequential addresses over all stripes
+        int hash = key * 0x9E3779B9;
+        return stripes[hash >>> 28];
+    }
 
     public void unthrottle(InetAddress address)
     {
-        throttle.remove( address );
+        int key = getKey( address );
+        TIntLongHashMap stripe = getStripe( key );
+        synchronized ( stripe )
+        {
+            stripe.remove( key );
+        }
     }
 
     public boolean throttle(InetAddress address)
     {
-        Long value = throttle.get( address );
+        int key = getKey( address );
+        TIntLongHashMap stripe = getStripe( key );
+        long currentTime = System.currentTimeMillis();
+
+        long value;
+        synchronized ( stripe )
+        {
+            if ( stripe.size() >= maxStripeSize && !stripe.containsKey( key ) )
+            {
+                evict( stripe, currentTime );
+            }
+            value = stripe.put( key, currentTime );
+        }
+
+        boolean throttled = value != stripe.getNoEntryValue() && currentTime - value < throttleTime;
+        if ( throttled )
+        {
+            hits.incrementAndGet();
+        }
+        return throttled;
+    }
+
+    private void evict(TIntLongHashMap stripe, final long currentTime)
+    {
+        int before = stripe.size();
+        stripe.retainEntries( new TIntLongProcedure()
+        {
+            @Override
+            public boolean execute(int key, long value)
+            {
+                return currentTime - value < throttleTime;
+            }
+        } );
+
+        // Still full of live entries, so forget them all rather than grow
+        if ( stripe.size() >= maxStripeSize )
+        {
+            stripe.clear();
+        }
+        evictions.addAndGet( before - stripe.size() );
+    }
+
+    /**
+     * Forget every address whose throttle time has passed.
+     */
+    public void cleanup()
+    {
         long currentTime = System.currentTimeMillis();
+        for ( TIntLongHashMap stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                evict( stripe, currentTime );
+            }
+        }
+    }
 
-        throttle.put( address, currentTime );
-        return value != null && currentTime - value < throttleTime;
+    /**
+     * @return the number of addresses currently remembered
+     */
+    public int size()
+    {
+        int size = 0;
+        for ( TIntLongHashMap stripe : stripes )
+        {
+            synchronized ( stripe )
+            {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return the number of connections which were throttled
+     */
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * @return the number of addresses forgotten, either expired or to stay
+     * within the size cap
+     */
+    public long getEvictions()
+    {
+        return evictions.get();
     }
 }
@@ -1,5 +1,7 @@
 package net.md_5.bungee;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.EventLoop;
 import java.security.GeneralSecurityException;
 import java.security.Key;
 import java.security.KeyFactory;
@@ -10,10 +12,16 @@ import java.security.PublicKey;
 import java.security.spec.X509EncodedKeySpec;
 import java.util.Arrays;
 import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import javax.crypto.Cipher;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import lombok.Getter;
+import net.md_5.bungee.api.Callback;
 import net.md_5.bungee.protocol.packet.EncryptionResponse;
 import net.md_5.bungee.protocol.packet.EncryptionRequest;
 
@@ -27,6 +35,17 @@ public class EncryptionUtil
     public static final KeyPair keys;
     @Getter
     private static final SecretKey secret = new SecretKeySpec( new byte[ 16 ], "AES" );
+    /**
+     * Private key operations are far too slow to run on the network threads,
+     * so they are queued here. Bounded so a login wave cannot pile up without
+     * limit.
+     */
+    private static final int CRYPTO_THREADS = Runtime.getRuntime().availableProcessors();
+    private static final ThreadPoolExecutor cryptoPool = new ThreadPoolExecutor( CRYPTO_THREADS, CRYPTO_THREADS, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<Runnable>( 4096 ), new ThreadFactoryBuilder().setNameFormat( "Crypto Worker #%1$d" ).setDaemon( true ).build() );
+    private static final AtomicLong decryptions = new AtomicLong();
+    private static final AtomicLong queueTime = new AtomicLong();
+    private static final AtomicLong rsaTime = new AtomicLong();
 
     static
     {
@@ -37,6 +56,7 @@ public class EncryptionUtil
         {
             throw new ExceptionInInitializerError( ex );
         }
+        cryptoPool.allowCoreThreadTimeOut( true );
     }
 
     public static EncryptionRequest encryptRequest()
@@ -63,6 +83,86 @@ public class EncryptionUtil
         return new SecretKeySpec( cipher.doFinal( resp.getSharedSecret() ), "AES" );
     }
 
+    /**
+     * Decrypts the shared secret on the crypto pool and calls back with it on
+     * the given event loop.
+     *
+     * @param resp the response sent by the client
+     * @param request the request it is answering
+     * @param eventLoop the event loop to call back on
+     * @param callback called with the shared secret, or the failure
+     */
+    public static void getSecret(final EncryptionResponse resp, final EncryptionRequest request, final EventLoop eventLoop, final Callback<SecretKey> callback)
+    {
+        final long queued = System.nanoTime();
+        try
+        {
+            cryptoPool.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    long start = System.nanoTime();
+                    SecretKey result = null;
+                    Throwable error = null;
+                    try
+                    {
+                        result = getSecret( resp, request );
+                    } catch ( Throwable t )
+                    {
+                        error = t;
+                    }
+                    queueTime.addAndGet( start - queued );
+                    rsaTime.addAndGet( System.nanoTime() - start );
+                    decryptions.incrementAndGet();
+
+                    callBack( eventLoop, callback, result, error );
+                }
+            } );
+        } catch ( RejectedExecutionException ex )
+        {
+            callBack( eventLoop, callback, null, ex );
+        }
+    }
+
+    private static void callBack(EventLoop eventLoop, final Callback<SecretKey> callback, final SecretKey result, final Throwable error)
+    {
+        eventLoop.execute( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                callback.done( result, error );
+            }
+        } );
+    }
+
+    /**
+     * @return the number of logins waiting for the crypto pool
+     */
+    public static int getCryptoQueueDepth()
+    {
+        return cryptoPool.getQueue().size();
+    }
+
+    /**
+     * @return the mean time in nanoseconds logins waited for the crypto pool
+     */
+    public static long getAverageQueueTime()
+    {
+        long count = decryptions.get();
+        return ( count == 0 ) ? 0 : queueTime.get() / count;
+    }
+
+    /**
+     * @return the mean time in nanoseconds taken to decrypt a shared secret
+     */
+    public static long getAverageRsaTime()
+    {
+        long count = decryptions.get();
+        return ( count == 0 ) ? 0 : rsaTime.get() / count;
+    }
+
     public static BungeeCipher getCipher(boolean forEncryption, SecretKey shared) throws GeneralSecurityException
     {
         BungeeCipher cipher;
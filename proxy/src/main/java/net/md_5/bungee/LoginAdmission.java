@@ -0,0 +1,307 @@
+package net.md_5.bungee;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import lombok.Getter;
+import net.md_5.bungee.api.Callback;
+
+/**
+ * Limits how many logins may be authenticating at once. Logins over the limit
+ * wait in a FIFO queue, and token buckets per address and per subnet stop any
+ * one source from filling that queue.
+ */
+public class LoginAdmission
+{
+
+    public enum Result
+    {
+
+        ADMITTED, QUEUED, THROTTLED, FULL;
+    }
+    //
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long queueTimeout;
+    private final LoadingCache<InetAddress, TokenBucket> addressBuckets;
+    private final LoadingCache<InetAddress, TokenBucket> subnetBuckets;
+    //
+    private final Deque<Ticket> queue = new ArrayDeque<>();
+    private int active;
+
+    /**
+     * @param maxConcurrent logins which may authenticate at once
+     * @param maxQueue logins which may wait for their turn
+     * @param queueTimeout time (ms) a login may wait before giving up
+     * @param addressRate logins per minute from a single address, 0 for no
+     * limit
+     * @param subnetRate logins per minute from a single /24 (IPv4) or /64
+     * (IPv6) subnet, 0 for no limit
+     */
+    public LoginAdmission(int maxConcurrent, int maxQueue, long queueTimeout, int addressRate, int subnetRate)
+    {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.queueTimeout = queueTimeout;
+        this.addressBuckets = buckets( addressRate );
+        this.subnetBuckets = buckets( subnetRate );
+    }
+
+    private static LoadingCache<InetAddress, TokenBucket> buckets(final int perMinute)
+    {
+        if ( perMinute <= 0 )
+        {
+            return null;
+        }
+        // A bucket untouched for a minute is full again, so it can be dropped
+        return CacheBuilder.newBuilder().expireAfterAccess( 1, TimeUnit.MINUTES ).build( new CacheLoader<InetAddress, TokenBucket>()
+        {
+            @Override
+            public TokenBucket load(InetAddress key) throws Exception
+            {
+                return new TokenBucket( perMinute );
+            }
+        } );
+    }
+
+    private static InetAddress getSubnet(InetAddress address)
+    {
+        byte[] bytes = address.getAddress();
+        int prefix = ( bytes.length == 4 ) ? 3 : 8;
+        Arrays.fill( bytes, prefix, bytes.length, (byte) 0 );
+        try
+        {
+            return InetAddress.getByAddress( bytes );
+        } catch ( UnknownHostException ex )
+        {
+            throw new IllegalArgumentException( ex );
+        }
+    }
+
+    /**
+     * Request permission to start authenticating a login. Unless the result
+     * of the returned ticket is {@link Result#THROTTLED} or
+     * {@link Result#FULL}, the callback is called once the login is admitted,
+     * or with a {@link TimeoutException} if it waited too long. It always runs
+     * on the executor, never within this call, so a caller on that executor
+     * has stored the ticket before the callback can use it. The ticket
+     * must be released once the login has authenticated or disconnected.
+     *
+     * @param address the address of the client
+     * @param executor executor to call back on and time out with
+     * @param callback called with the ticket once admitted
+     * @return the ticket for this login
+     */
+    public Ticket request(InetAddress address, ScheduledExecutorService executor, Callback<Ticket> callback)
+    {
+        Ticket ticket = new Ticket( executor, callback );
+        if ( ( addressBuckets != null && !addressBuckets.getUnchecked( address ).tryTake() )
+                || ( subnetBuckets != null && !subnetBuckets.getUnchecked( getSubnet( address ) ).tryTake() ) )
+        {
+            ticket.result = Result.THROTTLED;
+            return ticket;
+        }
+
+        synchronized ( this )
+        {
+            if ( active < maxConcurrent )
+            {
+                active++;
+                ticket.result = Result.ADMITTED;
+            } else if ( queue.size() < maxQueue )
+            {
+                queue.add( ticket );
+                ticket.result = Result.QUEUED;
+            } else
+            {
+                ticket.result = Result.FULL;
+            }
+        }
+
+        if ( ticket.result == Result.ADMITTED )
+        {
+            // Never call back before the caller has its ticket
+            ticket.admit();
+        } else if ( ticket.result == Result.QUEUED )
+        {
+            ticket.timeout = executor.schedule( ticket, queueTimeout, TimeUnit.MILLISECONDS );
+        }
+        return ticket;
+    }
+
+    /**
+     * @return the number of logins currently authenticating
+     */
+    public synchronized int getActive()
+    {
+        return active;
+    }
+
+    /**
+     * @return the number of logins waiting to authenticate
+     */
+    public synchronized int getQueueLength()
+    {
+        return queue.size();
+    }
+
+    private void release(Ticket ticket)
+    {
+        Ticket next;
+        synchronized ( this )
+        {
+            if ( ticket.result == Result.QUEUED )
+            {
+                queue.remove( ticket );
+                ticket.result = null;
+                return;
+            }
+            if ( ticket.result != Result.ADMITTED )
+            {
+                return;
+            }
+            ticket.result = null;
+
+            next = queue.poll();
+            if ( next == null )
+            {
+                active--;
+                return;
+            }
+            // The released slot passes straight to the next in line
+            next.result = Result.ADMITTED;
+        }
+
+        if ( next.timeout != null )
+        {
+            next.timeout.cancel( false );
+        }
+        next.admit();
+    }
+
+    private void timeout(Ticket ticket)
+    {
+        synchronized ( this )
+        {
+            if ( ticket.result != Result.QUEUED )
+            {
+                return;
+            }
+            ticket.position = getPosition( ticket );
+            queue.remove( ticket );
+            ticket.result = null;
+        }
+        ticket.callback.done( ticket, new TimeoutException( "Waited " + queueTimeout + "ms for login" ) );
+    }
+
+    private int getPosition(Ticket ticket)
+    {
+        int position = 1;
+        for ( Ticket queued : queue )
+        {
+            if ( queued == ticket )
+            {
+                return position;
+            }
+            position++;
+        }
+        return 0;
+    }
+
+    public class Ticket implements Runnable
+    {
+
+        private final ScheduledExecutorService executor;
+        private final Callback<Ticket> callback;
+        @Getter
+        private Result result;
+        private ScheduledFuture<?> timeout;
+        private int position;
+
+        private Ticket(ScheduledExecutorService executor, Callback<Ticket> callback)
+        {
+            this.executor = executor;
+            this.callback = callback;
+        }
+
+        /**
+         * Gets the position of this login in the queue, or when it timed out
+         * the position it had reached.
+         *
+         * @return the 1 based position, or 0 if not queued
+         */
+        public int getPosition()
+        {
+            synchronized ( LoginAdmission.this )
+            {
+                return ( result == Result.QUEUED ) ? LoginAdmission.this.getPosition( this ) : position;
+            }
+        }
+
+        /**
+         * Give up this login's slot or place in the queue. Safe to call more
+         * than once.
+         */
+        public void release()
+        {
+            LoginAdmission.this.release( this );
+        }
+
+        private void admit()
+        {
+            executor.execute( new Runnable()
+            {
+                @Override
+                public void run()
+                {
+                    callback.done( Ticket.this, null );
+                }
+            } );
+        }
+
+        @Override
+        public void run()
+        {
+            timeout( this );
+        }
+    }
+
+    private static class TokenBucket
+    {
+
+        private final int capacity;
+        private final long nanosPerToken;
+        private double tokens;
+        private long lastRefill = System.nanoTime();
+
+        private TokenBucket(int perMinute)
+        {
+            this.capacity = perMinute;
+            this.nanosPerToken = TimeUnit.MINUTES.toNanos( 1 ) / Math.max( perMinute, 1 );
+            this.tokens = perMinute;
+        }
+
+        private synchronized boolean tryTake()
+        {
+            long now = System.nanoTime();
+            tokens = Math.min( capacity, tokens + (double) ( now - lastRefill ) / nanosPerToken );
+            lastRefill = now;
+
+            if ( tokens >= 1 )
+            {
+                tokens--;
+                return true;
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package net.md_5.bungee;
+
+import com.google.common.collect.ImmutableSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.RequiredArgsConstructor;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+
+/**
+ * All fully connected players, indexed by case insensitive name, unique id
+ * and offline id, plus a sorted array of names for prefix matching. Lookups
+ * never lock; joins and quits are serialized with each other, and the
+ * snapshot returned by {@link #getPlayers()} is only rebuilt after one of
+ * them.
+ */
+public class PlayerRegistry
+{
+
+    private final ConcurrentMap<String, ProxiedPlayer> byName = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, ProxiedPlayer> byUniqueId = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, ProxiedPlayer> byOfflineId = new ConcurrentHashMap<>();
+    private volatile Collection<ProxiedPlayer> snapshot;
+    /**
+     * Lower cased names in sorted order, replaced (never modified) on each
+     * join and quit.
+     */
+    private volatile NameEntry[] names = new NameEntry[ 0 ];
+
+    private static String key(String name)
+    {
+        return name.toLowerCase();
+    }
+
+    /**
+     * Add a player, replacing any player already registered with the same
+     * name.
+     *
+     * @param player the player to add
+     * @param offlineId the id this player would have in offline mode
+     */
+    public synchronized void add(ProxiedPlayer player, UUID offlineId)
+    {
+        String key = key( player.getName() );
+        byName.put( key, player );
+        byUniqueId.put( player.getUniqueId(), player );
+        byOfflineId.put( offlineId, player );
+        snapshot = null;
+
+        NameEntry[] current = names;
+        int index = lowerBound( current, key );
+        if ( index < current.length && current[index].name.equals( key ) )
+        {
+            NameEntry[] updated = current.clone();
+            updated[index] = new NameEntry( key, player );
+            names = updated;
+        } else
+        {
+            NameEntry[] updated = new NameEntry[ current.length + 1 ];
+            System.arraycopy( current, 0, updated, 0, index );
+            updated[index] = new NameEntry( key, player );
+            System.arraycopy( current, index, updated, index + 1, current.length - index );
+            names = updated;
+        }
+    }
+
+    /**
+     * Remove a player, unless it has since been replaced by another player of
+     * the same name.
+     *
+     * @param player the player to remove
+     * @param offlineId the id this player was added with
+     * @return whether the player was removed
+     */
+    public synchronized boolean remove(ProxiedPlayer player, UUID offlineId)
+    {
+        // TODO See #1218
+        if ( !byName.remove( key( player.getName() ), player ) )
+        {
+            return false;
+        }
+        byUniqueId.remove( player.getUniqueId(), player );
+        byOfflineId.remove( offlineId, player );
+        snapshot = null;
+
+        NameEntry[] current = names;
+        int index = lowerBound( current, key( player.getName() ) );
+        NameEntry[] updated = new NameEntry[ current.length - 1 ];
+        System.arraycopy( current, 0, updated, 0, index );
+        System.arraycopy( current, index + 1, updated, index, updated.length - index );
+        names = updated;
+        return true;
+    }
+
+    /**
+     * Index of the first name not less than the given key.
+     */
+    private static int lowerBound(NameEntry[] entries, String key)
+    {
+        int low = 0;
+        int high = entries.length;
+        while ( low < high )
+        {
+            int mid = ( low + high ) >>> 1;
+            if ( entries[mid].name.compareTo( key ) < 0 )
+            {
+                low = mid + 1;
+            } else
+            {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Find players whose name starts with the given prefix, ignoring case.
+     *
+     * @param prefix the start of the name
+     * @param limit the most players to return
+     * @return the matching players, in name order
+     */
+    public List<ProxiedPlayer> matchPrefix(String prefix, int limit)
+    {
+        String key = key( prefix );
+        NameEntry[] entries = names;
+        List<ProxiedPlayer> matches = new ArrayList<>();
+        for ( int i = lowerBound( entries, key ); i < entries.length && matches.size() < limit && entries[i].name.startsWith( key ); i++ )
+        {
+            matches.add( entries[i].player );
+        }
+        return matches;
+    }
+
+    /**
+     * Find players whose name contains the given string, ignoring case.
+     *
+     * @param part the part of the name
+     * @param limit the most players to return
+     * @return the matching players, in name order
+     */
+    public List<ProxiedPlayer> matchSubstring(String part, int limit)
+    {
+        String key = key( part );
+        NameEntry[] entries = names;
+        List<ProxiedPlayer> matches = new ArrayList<>();
+        for ( int i = 0; i < entries.length && matches.size() < limit; i++ )
+        {
+            if ( entries[i].name.contains( key ) )
+            {
+                matches.add( entries[i].player );
+            }
+        }
+        return matches;
+    }
+
+    public ProxiedPlayer get(String name)
+    {
+        return byName.get( key( name ) );
+    }
+
+    public ProxiedPlayer get(UUID uniqueId)
+    {
+        return byUniqueId.get( uniqueId );
+    }
+
+    public ProxiedPlayer getByOfflineId(UUID offlineId)
+    {
+        return byOfflineId.get( offlineId );
+    }
+
+    /**
+     * Gets an immutable snapshot of all players. Repeated calls return the
+     * same instance until a player joins or quits.
+     *
+     * @return all registered players
+     */
+    public Collection<ProxiedPlayer> getPlayers()
+    {
+        Collection<ProxiedPlayer> players = snapshot;
+        if ( players == null )
+        {
+            synchronized ( this )
+            {
+                players = snapshot;
+                if ( players == null )
+                {
+                    snapshot = players = ImmutableSet.copyOf( byName.values() );
+                }
+            }
+        }
+        return players;
+    }
+
+    public int size()
+    {
+        return byName.size();
+    }
+
+    @RequiredArgsConstructor
+    private static final class NameEntry
+    {
+
+        private final String name;
+        private final ProxiedPlayer player;
+    }
+}
@@ -35,6 +35,12 @@ public class ServerConnection implements Server
         {
             ch.write( packet );
         }
+
+        @Override
+        public void flushNow()
+        {
+            ch.flushNow();
+        }
     };
 
     @Override
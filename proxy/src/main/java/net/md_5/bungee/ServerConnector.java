@@ -241,7 +241,9 @@ public class ServerConnector extends PacketHandler
         user.setDimensionChange( false );
 
         user.setServer( server );
-        ch.getHandle().pipeline().get( HandlerBoss.class ).setHandler( new DownstreamBridge( bungee, user, server ) );
+        DownstreamBridge bridge = new DownstreamBridge( bungee, user, server );
+        ch.getHandle().pipeline().get( HandlerBoss.class ).setHandler( bridge );
+        bridge.updateCompressionPassthrough();
 
         bungee.getPluginManager().callEvent( new ServerSwitchEvent( user ) );
 
@@ -28,12 +28,14 @@ import net.md_5.bungee.api.ProxyServer;
 import net.md_5.bungee.api.Title;
 import net.md_5.bungee.api.chat.BaseComponent;
 import net.md_5.bungee.api.chat.TextComponent;
+import net.md_5.bungee.api.config.ListenerInfo;
 import net.md_5.bungee.api.config.ServerInfo;
 import net.md_5.bungee.api.connection.ProxiedPlayer;
 import net.md_5.bungee.api.event.PermissionCheckEvent;
 import net.md_5.bungee.api.event.ServerConnectEvent;
 import net.md_5.bungee.api.score.Scoreboard;
 import net.md_5.bungee.chat.ComponentSerializer;
+import net.md_5.bungee.compress.PacketCompressor;
 import net.md_5.bungee.connection.InitialHandler;
 import net.md_5.bungee.entitymap.EntityMap;
 import net.md_5.bungee.forge.ForgeClientHandler;
@@ -64,6 +66,7 @@ public final class UserConnection implements ProxiedPlayer
     /*========================================================================*/
     @NonNull
     private final ProxyServer bungee;
+    @Getter
     @NonNull
     private final ChannelWrapper ch;
     @Getter
@@ -135,6 +138,12 @@ public final class UserConnection implements ProxiedPlayer
         {
             ch.write( packet );
         }
+
+        @Override
+        public void flushNow()
+        {
+            ch.flushNow();
+        }
     };
 
     public void init()
@@ -539,9 +548,20 @@ public final class UserConnection implements ProxiedPlayer
     {
         if ( this.compressionThreshold == -1 )
         {
+            ListenerInfo listener = getPendingConnection().getListener();
+            if ( listener.getCompressionThreshold() != -1 )
+            {
+                compressionThreshold = listener.getCompressionThreshold();
+            }
+
             this.compressionThreshold = compressionThreshold;
             unsafe.sendPacket( new SetCompression( compressionThreshold ) );
             ch.setCompressionThreshold( compressionThreshold );
+
+            PacketCompressor compressor = ch.getHandle().pipeline().get( PacketCompressor.class );
+            compressor.setLevel( listener.getCompressionLevel() );
+            compressor.setAdaptive( listener.isAdaptiveCompression() );
+            compressor.setMonitor( BungeeCord.getInstance().getCompressionMonitor() );
         }
     }
 }
@@ -0,0 +1,14 @@
+package net.md_5.bungee.compress;
+
+import net.md_5.bungee.BungeeZlib;
+import net.md_5.bungee.JavaZlib;
+import net.md_5.bungee.NativeZlib;
+
+public class CompressFactory
+{
+
+    public static BungeeZlib newZlib()
+    {
+        return ( NativeZlib.isLoaded() ) ? new NativeZlib() : new JavaZlib();
+    }
+}
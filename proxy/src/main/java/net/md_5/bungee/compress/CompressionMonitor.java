@@ -0,0 +1,159 @@
+package net.md_5.bungee.compress;
+
+import io.netty.util.concurrent.EventExecutor;
+import io.netty.util.concurrent.EventExecutorGroup;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.Deflater;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Samples the CPU utilisation of the network threads and records what
+ * compression costs. Adaptive compressors consult {@link #getLevel(int)} and
+ * step down towards faster levels while the threads are busier than the
+ * target, stepping back up once they have headroom again.
+ */
+public class CompressionMonitor implements Runnable
+{
+
+    private static final int DEFAULT_LEVEL = 6;
+    private static final double HYSTERESIS = 0.1;
+    private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    private final EventExecutorGroup group;
+    private final Map<EventExecutor, Long> threads = new ConcurrentHashMap<>();
+    private final Map<Long, Long> lastCpuTime = new ConcurrentHashMap<>();
+    private long lastSample;
+    /**
+     * Utilisation (0-1) above which the level is lowered.
+     */
+    @Setter
+    private volatile double target;
+    private final AtomicLong bytesIn = new AtomicLong();
+    private final AtomicLong bytesOut = new AtomicLong();
+    private final AtomicLong compressionTime = new AtomicLong();
+    /**
+     * Mean CPU utilisation (0-1) of the network threads over the last sample,
+     * or -1 if the JVM cannot measure thread CPU time.
+     */
+    @Getter
+    private volatile double utilisation = -1;
+    /**
+     * Number of levels adaptive compressors are currently stepped down by.
+     */
+    @Getter
+    private volatile int levelReduction;
+
+    public CompressionMonitor(EventExecutorGroup group, double target)
+    {
+        this.group = group;
+        this.target = target;
+
+        if ( threadBean.isThreadCpuTimeSupported() && !threadBean.isThreadCpuTimeEnabled() )
+        {
+            threadBean.setThreadCpuTimeEnabled( true );
+        }
+    }
+
+    /**
+     * Get the level an adaptive compressor configured with the specified
+     * level should currently use.
+     *
+     * @param level the configured level
+     * @return the level to compress with
+     */
+    public int getLevel(int level)
+    {
+        if ( level == Deflater.DEFAULT_COMPRESSION )
+        {
+            level = DEFAULT_LEVEL;
+        }
+        return ( level == 0 ) ? 0 : Math.max( 1, level - levelReduction );
+    }
+
+    public void record(int in, int out, long nanos)
+    {
+        bytesIn.addAndGet( in );
+        bytesOut.addAndGet( out );
+        compressionTime.addAndGet( nanos );
+    }
+
+    /**
+     * Get the ratio of compressed to uncompressed bytes across all compressed
+     * packets.
+     *
+     * @return the compression ratio, or 1 if nothing has been compressed
+     */
+    public double getCompressionRatio()
+    {
+        long in = bytesIn.get();
+        return ( in == 0 ) ? 1 : (double) bytesOut.get() / in;
+    }
+
+    /**
+     * Get the total CPU time spent compressing packets.
+     *
+     * @return the compression time in nanoseconds
+     */
+    public long getCompressionTime()
+    {
+        return compressionTime.get();
+    }
+
+    @Override
+    public void run()
+    {
+        if ( !threadBean.isThreadCpuTimeEnabled() )
+        {
+            return;
+        }
+
+        for ( final EventExecutor loop : group )
+        {
+            if ( !threads.containsKey( loop ) )
+            {
+                loop.execute( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        threads.put( loop, Thread.currentThread().getId() );
+                    }
+                } );
+            }
+        }
+
+        long now = System.nanoTime();
+        long elapsed = now - lastSample;
+        long busy = 0;
+        int sampled = 0;
+        for ( Long thread : threads.values() )
+        {
+            long cpu = threadBean.getThreadCpuTime( thread );
+            Long last = lastCpuTime.put( thread, cpu );
+            if ( cpu != -1 && last != null && last != -1 )
+            {
+                busy += cpu - last;
+                sampled++;
+            }
+        }
+        lastSample = now;
+
+        if ( sampled == 0 )
+        {
+            return;
+        }
+
+        utilisation = (double) busy / ( elapsed * sampled );
+        if ( utilisation > target )
+        {
+            levelReduction = Math.min( levelReduction + 1, Deflater.BEST_COMPRESSION - 1 );
+        } else if ( utilisation < target - HYSTERESIS && levelReduction > 0 )
+        {
+            levelReduction--;
+        }
+    }
+}
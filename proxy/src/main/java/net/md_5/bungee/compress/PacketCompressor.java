@@ -0,0 +1,73 @@
+package net.md_5.bungee.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToByteEncoder;
+import java.util.zip.Deflater;
+import lombok.Setter;
+import net.md_5.bungee.BungeeZlib;
+import net.md_5.bungee.protocol.DefinedPacket;
+
+public class PacketCompressor extends MessageToByteEncoder<ByteBuf>
+{
+
+    private final BungeeZlib zlib = CompressFactory.newZlib();
+    @Setter
+    private int threshold = 256;
+    @Setter
+    private int level = Deflater.DEFAULT_COMPRESSION;
+    /**
+     * Whether to take the level from the monitor rather than using it as is.
+     */
+    @Setter
+    private boolean adaptive;
+    /**
+     * Optional monitor to record compression statistics with.
+     */
+    @Setter
+    private CompressionMonitor monitor;
+    private int currentLevel;
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception
+    {
+        zlib.init( true, currentLevel = level );
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception
+    {
+        zlib.free();
+    }
+
+    @Override
+    protected void encode(ChannelHandlerContext ctx, ByteBuf msg, ByteBuf out) throws Exception
+    {
+        int origSize = msg.readableBytes();
+        if ( origSize < threshold )
+        {
+            DefinedPacket.writeVarInt( 0, out );
+            out.writeBytes( msg );
+        } else
+        {
+            int newLevel = ( adaptive && monitor != null ) ? monitor.getLevel( level ) : level;
+            if ( newLevel != currentLevel )
+            {
+                zlib.free();
+                zlib.init( true, currentLevel = newLevel );
+            }
+
+            DefinedPacket.writeVarInt( origSize, out );
+            if ( monitor == null )
+            {
+                zlib.process( msg, out );
+            } else
+            {
+                int start = out.writerIndex();
+                long time = System.nanoTime();
+                zlib.process( msg, out );
+                monitor.record( origSize, out.writerIndex() - start, System.nanoTime() - time );
+            }
+        }
+    }
+}
@@ -0,0 +1,146 @@
+package net.md_5.bungee.compress;
+
+import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.handler.codec.MessageToMessageDecoder;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import lombok.Setter;
+import net.md_5.bungee.BungeeZlib;
+import net.md_5.bungee.protocol.DefinedPacket;
+import net.md_5.bungee.protocol.PacketWrapper;
+
+public class PacketDecompressor extends MessageToMessageDecoder<ByteBuf>
+{
+
+    /**
+     * Largest decompressed packet a client may declare, as enforced by the
+     * vanilla server.
+     */
+    private static final int MAX_DECOMPRESSED_SIZE = 2 * 1024 * 1024;
+
+    private final BungeeZlib zlib = CompressFactory.newZlib();
+    /**
+     * Packet ids which may be passed on still compressed, as a
+     * {@link PacketWrapper} holding the original frame, or null to always
+     * decompress.
+     */
+    @Setter
+    private boolean[] passthrough;
+    // Only used to inflate the first few bytes of a packet to find its id
+    private final Inflater peeker = new Inflater();
+    private final byte[] peekIn = new byte[ 256 ];
+    private final byte[] peekOut = new byte[ 5 ];
+
+    @Override
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception
+    {
+        zlib.init( false, 0 );
+    }
+
+    @Override
+    public void handlerRemoved(ChannelHandlerContext ctx) throws Exception
+    {
+        zlib.free();
+        peeker.end();
+    }
+
+    @Override
+    protected void decode(ChannelHandlerContext ctx, ByteBuf in, List<Object> out) throws Exception
+    {
+        if ( !in.isReadable() )
+        {
+            return;
+        }
+
+        int start = in.readerIndex();
+        int size = DefinedPacket.readVarInt( in );
+        if ( size == 0 )
+        {
+            out.add( in.slice().retain() );
+            in.skipBytes( in.readableBytes() );
+        } else if ( passthrough != null && canPassthrough( peekPacketId( in ) ) )
+        {
+            out.add( new PacketWrapper( null, in.slice( start, in.writerIndex() - start ).retain(), true ) );
+            in.skipBytes( in.readableBytes() );
+        } else
+        {
+            Preconditions.checkState( size > 0 && size <= MAX_DECOMPRESSED_SIZE, "Decompressed packet size %s outside protocol maximum of %s", size, MAX_DECOMPRESSED_SIZE );
+            // Capped at the declared size, so a stream inflating to more fails rather than growing the buffer
+            ByteBuf decompressed = ctx.alloc().directBuffer( size, size );
+            try
+            {
+                zlib.process( in, decompressed );
+                Preconditions.checkState( decompressed.readableBytes() == size, "Decompressed packet size mismatch" );
+
+                out.add( decompressed );
+                decompressed = null;
+            } finally
+            {
+                if ( decompressed != null )
+                {
+                    decompressed.release();
+                }
+            }
+        }
+    }
+
+    private boolean canPassthrough(int packetId)
+    {
+        return packetId >= 0 && packetId < passthrough.length && passthrough[packetId];
+    }
+
+    /**
+     * Inflates just enough of the compressed packet to read its id.
+     *
+     * @param in the compressed packet, which is not consumed
+     * @return the packet id, or -1 if it could not be read
+     */
+    private int peekPacketId(ByteBuf in) throws DataFormatException
+    {
+        peeker.reset();
+
+        int index = in.readerIndex();
+        int produced = 0;
+        int read = 0;
+        int packetId = 0;
+        while ( true )
+        {
+            // Inflate may produce more than the id, so stop at its last byte
+            while ( read < produced )
+            {
+                byte b = peekOut[read];
+                packetId |= ( b & 0x7F ) << ( read++ * 7 );
+                if ( ( b & 0x80 ) == 0 )
+                {
+                    return packetId;
+                }
+            }
+
+            if ( produced == peekOut.length || peeker.finished() )
+            {
+                return -1;
+            }
+            if ( peeker.needsInput() )
+            {
+                if ( index == in.writerIndex() )
+                {
+                    return -1;
+                }
+                int length = Math.min( peekIn.length, in.writerIndex() - index );
+                in.getBytes( index, peekIn, 0, length );
+                peeker.setInput( peekIn, 0, length );
+                index += length;
+            }
+
+            int inflated = peeker.inflate( peekOut, produced, peekOut.length - produced );
+            if ( inflated == 0 && !peeker.needsInput() && !peeker.finished() )
+            {
+                return -1;
+            }
+            produced += inflated;
+        }
+    }
+}
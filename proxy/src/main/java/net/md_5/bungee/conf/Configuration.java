@@ -52,6 +52,28 @@ public class Configuration implements ProxyConfig
     private int throttle = 4000;
     private boolean ipForward;
     private Favicon favicon;
+    /**
+     * Network thread utilisation (percent) above which adaptive compression
+     * lowers the compression level.
+     */
+    private int compressionTarget = 75;
+    /**
+     * Time (ms) login events wait for plugin intents before the login is
+     * refused, 0 to wait forever as plugins have always relied on.
+     */
+    private int loginEventTimeout = 0;
+    /**
+     * Logins which may authenticate at once, the rest wait in a queue.
+     */
+    private int loginConcurrency = 64;
+    private int loginQueue = 1000;
+    private int loginQueueTimeout = 20000;
+    /**
+     * Logins per minute allowed from one address and from one subnet, 0 for
+     * no limit. Off by default, as many players may share one address.
+     */
+    private int loginAddressRate = 0;
+    private int loginSubnetRate = 0;
 
     public void load()
     {
@@ -77,6 +99,13 @@ public class Configuration implements ProxyConfig
         playerLimit = adapter.getInt( "player_limit", playerLimit );
         throttle = adapter.getInt( "connection_throttle", throttle );
         ipForward = adapter.getBoolean( "ip_forward", ipForward );
+        compressionTarget = adapter.getInt( "compression_target", compressionTarget );
+        loginEventTimeout = adapter.getInt( "login_event_timeout", loginEventTimeout );
+        loginConcurrency = adapter.getInt( "login_concurrency", loginConcurrency );
+        loginQueue = adapter.getInt( "login_queue", loginQueue );
+        loginQueueTimeout = adapter.getInt( "login_queue_timeout", loginQueueTimeout );
+        loginAddressRate = adapter.getInt( "login_address_rate", loginAddressRate );
+        loginSubnetRate = adapter.getInt( "login_subnet_rate", loginSubnetRate );
 
         disabledCommands = new CaseInsensitiveSet( (Collection<String>) adapter.getList( "disabled_commands", Arrays.asList( "disabledcommandhere" ) ) );
 
@@ -1,5 +1,6 @@
 package net.md_5.bungee.conf;
 
+import com.google.common.base.Preconditions;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.io.File;
 import java.io.FileInputStream;
@@ -219,7 +220,14 @@ public class YamlConfig implements ConfigurationAdapter
             boolean query = get( "query_enabled", false, val );
             int queryPort = get( "query_port", 25577, val );
 
-            ListenerInfo info = new ListenerInfo( address, motd, maxPlayers, tabListSize, defaultServer, fallbackServer, forceDefault, forced, value.toString(), setLocalAddress, pingPassthrough, queryPort, query );
+            int compressionThreshold = get( "compression_threshold", -1, val );
+            int compressionLevel = get( "compression_level", -1, val );
+            Preconditions.checkArgument( compressionLevel >= -1 && compressionLevel <= 9, "Invalid compression level %s", compressionLevel );
+            boolean adaptiveCompression = get( "adaptive_compression", false, val );
+            int acceptors = get( "acceptors", 1, val );
+            Preconditions.checkArgument( acceptors >= 1, "Listener must have at least one acceptor" );
+
+            ListenerInfo info = new ListenerInfo( address, motd, maxPlayers, tabListSize, defaultServer, fallbackServer, forceDefault, forced, value.toString(), setLocalAddress, pingPassthrough, queryPort, query, compressionThreshold, compressionLevel, adaptiveCompression, acceptors );
             ret.add( info );
         }
 
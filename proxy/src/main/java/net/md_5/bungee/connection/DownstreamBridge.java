@@ -25,10 +25,12 @@ import net.md_5.bungee.api.score.Score;
 import net.md_5.bungee.api.score.Scoreboard;
 import net.md_5.bungee.api.score.Team;
 import net.md_5.bungee.chat.ComponentSerializer;
+import net.md_5.bungee.entitymap.EntityMap;
 import net.md_5.bungee.netty.ChannelWrapper;
 import net.md_5.bungee.netty.PacketHandler;
 import net.md_5.bungee.protocol.DefinedPacket;
 import net.md_5.bungee.protocol.PacketWrapper;
+import net.md_5.bungee.protocol.Protocol;
 import net.md_5.bungee.protocol.ProtocolConstants;
 import net.md_5.bungee.protocol.packet.KeepAlive;
 import net.md_5.bungee.protocol.packet.PlayerListItem;
@@ -93,11 +95,41 @@ public class DownstreamBridge extends PacketHandler
     {
         if ( !server.isObsolete() )
         {
-            con.getEntityRewrite().rewriteClientbound( packet.buf, con.getServerEntityId(), con.getClientEntityId() );
+            // Compressed packets are only passed through if they never need rewriting
+            if ( !packet.compressed )
+            {
+                packet.buf = con.getEntityRewrite().rewriteClientbound( packet.buf, con.getServerEntityId(), con.getClientEntityId() );
+            }
             con.sendPacket( packet );
         }
     }
 
+    /**
+     * Lets packets the proxy neither decodes nor rewrites be forwarded to the
+     * client still compressed, provided both sides use the same threshold.
+     */
+    public void updateCompressionPassthrough()
+    {
+        server.getCh().setCompressionPassthrough( con.getCh(), getPassthroughIds( con.getEntityRewrite() ) );
+    }
+
+    /**
+     * Gets the clientbound packet ids which are neither decoded nor entity
+     * rewritten, and so may be forwarded still compressed.
+     *
+     * @param rewrite the entity map of the connection
+     * @return whether each packet id may be passed through
+     */
+    public static boolean[] getPassthroughIds(EntityMap rewrite)
+    {
+        boolean[] ids = new boolean[ Protocol.MAX_PACKET_ID ];
+        for ( int id = 0; id < ids.length; id++ )
+        {
+            ids[id] = !Protocol.GAME.TO_CLIENT.hasPacket( id ) && !rewrite.hasRewrite( id, ProtocolConstants.Direction.TO_CLIENT );
+        }
+        return ids;
+    }
+
     @Override
     public void handle(KeepAlive alive) throws Exception
     {
@@ -364,7 +396,7 @@ public class DownstreamBridge extends PacketHandler
                     if ( server != null )
                     {
                         out.writeUTF( server.getName() );
-                        out.writeInt( server.getPlayers().size() );
+                        out.writeInt( server.getPlayerCount() );
                     }
                 }
             }
@@ -477,6 +509,7 @@ public class DownstreamBridge extends PacketHandler
     {
         con.setCompressionThreshold( setCompression.getThreshold() );
         server.getCh().setCompressionThreshold( setCompression.getThreshold() );
+        updateCompressionPassthrough();
     }
 
     @Override
@@ -74,6 +74,7 @@ public class InitialHandler extends PacketHandler implements PendingConnection
     @Getter
     private final List<PluginMessage> registerMessages = new ArrayList<>();
     private State thisState = State.HANDSHAKE;
+    private LoginAdmission.Ticket admission;
     private final Unsafe unsafe = new Unsafe()
     {
         @Override
@@ -81,6 +82,12 @@ public class InitialHandler extends PacketHandler implements PendingConnection
         {
             ch.write( packet );
         }
+
+        @Override
+        public void flushNow()
+        {
+            ch.flushNow();
+        }
     };
     @Getter
     private boolean onlineMode = BungeeCord.getInstance().config.isOnlineMode();
@@ -96,7 +103,7 @@ public class InitialHandler extends PacketHandler implements PendingConnection
     private enum State
     {
 
-        HANDSHAKE, STATUS, PING, USERNAME, ENCRYPT, FINISHED;
+        HANDSHAKE, STATUS, PING, USERNAME, ENCRYPT, AUTHENTICATE, FINISHED;
     }
 
     @Override
@@ -105,6 +112,15 @@ public class InitialHandler extends PacketHandler implements PendingConnection
         this.ch = channel;
     }
 
+    @Override
+    public void disconnected(ChannelWrapper channel) throws Exception
+    {
+        if ( admission != null )
+        {
+            admission.release();
+        }
+    }
+
     @Override
     public void exception(Throwable t) throws Exception
     {
@@ -288,12 +304,52 @@ public class InitialHandler extends PacketHandler implements PendingConnection
             return;
         }
 
+        Callback<LoginAdmission.Ticket> admitted = new Callback<LoginAdmission.Ticket>()
+        {
+            @Override
+            public void done(LoginAdmission.Ticket result, Throwable error)
+            {
+                if ( error != null )
+                {
+                    disconnect( bungee.getTranslation( "login_queue_timeout", result.getPosition() ) );
+                    return;
+                }
+                if ( ch.isClosed() )
+                {
+                    result.release();
+                    return;
+                }
+                preLogin();
+            }
+        };
+
+        // Wait for our turn to authenticate
+        admission = BungeeCord.getInstance().getLoginAdmission().request( getAddress().getAddress(), ch.getHandle().eventLoop(), admitted );
+        switch ( admission.getResult() )
+        {
+            case THROTTLED:
+                disconnect( bungee.getTranslation( "login_throttled" ) );
+                break;
+            case FULL:
+                disconnect( bungee.getTranslation( "login_queue_full" ) );
+                break;
+        }
+    }
+
+    private void preLogin()
+    {
         Callback<PreLoginEvent> callback = new Callback<PreLoginEvent>()
         {
 
             @Override
             public void done(PreLoginEvent result, Throwable error)
             {
+                if ( error != null )
+                {
+                    disconnect( bungee.getTranslation( "login_timeout" ) );
+                    bungee.getLogger().log( Level.WARNING, "Pre login of " + getName() + " did not complete", error );
+                    return;
+                }
                 if ( result.isCancelled() )
                 {
                     disconnect( result.getCancelReason() );
@@ -314,16 +370,50 @@ public class InitialHandler extends PacketHandler implements PendingConnection
             }
         };
 
-        // fire pre login event
-        bungee.getPluginManager().callEvent( new PreLoginEvent( InitialHandler.this, callback ) );
+        // fire pre login event, calling back on our event loop
+        PreLoginEvent event = new PreLoginEvent( InitialHandler.this, callback );
+        event.completeOn( ch.getHandle().eventLoop(), BungeeCord.getInstance().config.getLoginEventTimeout(), TimeUnit.MILLISECONDS );
+        bungee.getPluginManager().callEvent( event );
     }
 
     @Override
     public void handle(final EncryptionResponse encryptResponse) throws Exception
     {
         Preconditions.checkState( thisState == State.ENCRYPT, "Not expecting ENCRYPT" );
+        thisState = State.AUTHENTICATE;
 
-        SecretKey sharedKey = EncryptionUtil.getSecret( encryptResponse, request );
+        // Decrypting the secret takes too long for the event loop, nothing else may be read until it is done
+        ch.getHandle().config().setAutoRead( false );
+        Callback<SecretKey> secretBack = new Callback<SecretKey>()
+        {
+            @Override
+            public void done(SecretKey result, Throwable error)
+            {
+                if ( ch.isClosed() )
+                {
+                    return;
+                }
+                ch.getHandle().config().setAutoRead( true );
+
+                try
+                {
+                    if ( error != null )
+                    {
+                        throw error;
+                    }
+                    authenticate( result );
+                } catch ( Throwable t )
+                {
+                    ch.getHandle().pipeline().fireExceptionCaught( t );
+                }
+            }
+        };
+
+        EncryptionUtil.getSecret( encryptResponse, request, ch.getHandle().eventLoop(), secretBack );
+    }
+
+    private void authenticate(SecretKey sharedKey) throws Exception
+    {
         BungeeCipher decrypt = EncryptionUtil.getCipher( false, sharedKey );
         ch.addBefore( PipelineUtils.FRAME_DECODER, PipelineUtils.DECRYPT_HANDLER, new CipherDecoder( decrypt ) );
         BungeeCipher encrypt = EncryptionUtil.getCipher( true, sharedKey );
@@ -372,6 +462,9 @@ public class InitialHandler extends PacketHandler implements PendingConnection
 
     private void finish()
     {
+        // Authentication is done, let the next login in
+        admission.release();
+
         // Check for multiple connections
         ProxiedPlayer old = bungee.getPlayer( getName() );
         if ( old != null )
@@ -391,6 +484,12 @@ public class InitialHandler extends PacketHandler implements PendingConnection
             @Override
             public void done(LoginEvent result, Throwable error)
             {
+                if ( error != null )
+                {
+                    disconnect( bungee.getTranslation( "login_timeout" ) );
+                    bungee.getLogger().log( Level.WARNING, "Login of " + getName() + " did not complete", error );
+                    return;
+                }
                 if ( result.isCancelled() )
                 {
                     disconnect( result.getCancelReason() );
@@ -401,53 +500,48 @@ public class InitialHandler extends PacketHandler implements PendingConnection
                     return;
                 }
 
-                ch.getHandle().eventLoop().execute( new Runnable()
+                if ( ch.getHandle().isActive() )
                 {
-                    @Override
-                    public void run()
+                    if ( getVersion() >= ProtocolConstants.MINECRAFT_1_7_6 )
+                    {
+                        unsafe.sendPacket( new LoginSuccess( getUniqueId().toString(), getName() ) ); // With dashes in between
+                    } else
+                    {
+                        unsafe.sendPacket( new LoginSuccess( getUUID(), getName() ) ); // Without dashes, for older clients.
+                    }
+                    ch.setProtocol( Protocol.GAME );
+
+                    UserConnection userCon = new UserConnection( bungee, ch, getName(), InitialHandler.this );
+                    userCon.init();
+
+                    bungee.getPluginManager().callEvent( new PostLoginEvent( userCon ) );
+
+                    ch.getHandle().pipeline().get( HandlerBoss.class ).setHandler( new UpstreamBridge( bungee, userCon ) );
+
+                    ServerInfo server;
+                    if ( bungee.getReconnectHandler() != null )
                     {
-                        if ( ch.getHandle().isActive() )
-                        {
-                            if ( getVersion() >= ProtocolConstants.MINECRAFT_1_7_6 )
-                            {
-                                unsafe.sendPacket( new LoginSuccess( getUniqueId().toString(), getName() ) ); // With dashes in between
-                            } else
-                            {
-                                unsafe.sendPacket( new LoginSuccess( getUUID(), getName() ) ); // Without dashes, for older clients.
-                            }
-                            ch.setProtocol( Protocol.GAME );
-
-                            UserConnection userCon = new UserConnection( bungee, ch, getName(), InitialHandler.this );
-                            userCon.init();
-
-                            bungee.getPluginManager().callEvent( new PostLoginEvent( userCon ) );
-
-                            ch.getHandle().pipeline().get( HandlerBoss.class ).setHandler( new UpstreamBridge( bungee, userCon ) );
-
-                            ServerInfo server;
-                            if ( bungee.getReconnectHandler() != null )
-                            {
-                                server = bungee.getReconnectHandler().getServer( userCon );
-                            } else
-                            {
-                                server = AbstractReconnectHandler.getForcedHost( InitialHandler.this );
-                            }
-                            if ( server == null )
-                            {
-                                server = bungee.getServerInfo( listener.getDefaultServer() );
-                            }
-
-                            userCon.connect( server, null, true );
-
-                            thisState = State.FINISHED;
-                        }
+                        server = bungee.getReconnectHandler().getServer( userCon );
+                    } else
+                    {
+                        server = AbstractReconnectHandler.getForcedHost( InitialHandler.this );
                     }
-                } );
+                    if ( server == null )
+                    {
+                        server = bungee.getServerInfo( listener.getDefaultServer() );
+                    }
+
+                    userCon.connect( server, null, true );
+
+                    thisState = State.FINISHED;
+                }
             }
         };
 
-        // fire login event
-        bungee.getPluginManager().callEvent( new LoginEvent( InitialHandler.this, complete ) );
+        // fire login event, calling back on our event loop
+        LoginEvent event = new LoginEvent( InitialHandler.this, complete );
+        event.completeOn( ch.getHandle().eventLoop(), BungeeCord.getInstance().config.getLoginEventTimeout(), TimeUnit.MILLISECONDS );
+        bungee.getPluginManager().callEvent( event );
     }
 
     @Override
@@ -1,7 +1,7 @@
 package net.md_5.bungee.entitymap;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.CompositeByteBuf;
 import net.md_5.bungee.protocol.DefinedPacket;
 import net.md_5.bungee.protocol.ProtocolConstants;
 
@@ -11,11 +11,32 @@ import net.md_5.bungee.protocol.ProtocolConstants;
 public abstract class EntityMap
 {
 
-    private final boolean[] clientboundInts = new boolean[ 256 ];
-    private final boolean[] clientboundVarInts = new boolean[ 256 ];
-
-    private final boolean[] serverboundInts = new boolean[ 256 ];
-    private final boolean[] serverboundVarInts = new boolean[ 256 ];
+    /**
+     * Rewrites an int entity id at the start of the packet.
+     */
+    protected static final RewriteHandler INT = new RewriteHandler()
+    {
+        @Override
+        public ByteBuf rewrite(ByteBuf packet, int oldId, int newId)
+        {
+            rewriteInt( packet, oldId, newId, packet.readerIndex() );
+            return packet;
+        }
+    };
+    /**
+     * Rewrites a VarInt entity id at the start of the packet.
+     */
+    protected static final RewriteHandler VARINT = new RewriteHandler()
+    {
+        @Override
+        public ByteBuf rewrite(ByteBuf packet, int oldId, int newId)
+        {
+            return rewriteVarInt( packet, oldId, newId, packet.readerIndex() );
+        }
+    };
+    /*========================================================================*/
+    private final RewriteHandler[] clientbound = new RewriteHandler[ 256 ];
+    private final RewriteHandler[] serverbound = new RewriteHandler[ 256 ];
 
     EntityMap()
     {
@@ -37,36 +58,72 @@ public abstract class EntityMap
     }
 
     protected void addRewrite(int id, ProtocolConstants.Direction direction, boolean varint)
+    {
+        addRewrite( id, direction, ( varint ) ? VARINT : INT );
+    }
+
+    protected void addRewrite(int id, ProtocolConstants.Direction direction, RewriteHandler handler)
     {
         if ( direction == ProtocolConstants.Direction.TO_CLIENT )
         {
-            if ( varint )
-            {
-                clientboundVarInts[ id ] = true;
-            } else
-            {
-                clientboundInts[ id ] = true;
-            }
+            clientbound[ id ] = handler;
         } else
         {
-            if ( varint )
-            {
-                serverboundVarInts[ id ] = true;
-            } else
-            {
-                serverboundInts[ id ] = true;
-            }
+            serverbound[ id ] = handler;
         }
     }
 
-    public void rewriteServerbound(ByteBuf packet, int oldId, int newId)
+    /**
+     * Checks whether packets with the specified id may have their entity ids
+     * rewritten when travelling in the specified direction.
+     *
+     * @param id the packet id
+     * @param direction the direction the packet travels in
+     * @return whether the packet may be rewritten
+     */
+    public boolean hasRewrite(int id, ProtocolConstants.Direction direction)
+    {
+        RewriteHandler[] handlers = ( direction == ProtocolConstants.Direction.TO_CLIENT ) ? clientbound : serverbound;
+        return id < 0 || id >= handlers.length || handlers[id] != null;
+    }
+
+    /**
+     * Rewrites the entity ids within a serverbound packet. Packets are
+     * modified in place where possible, however if the packet must change
+     * size it will be replaced by a new buffer and the original released.
+     *
+     * @param packet the packet to rewrite
+     * @param oldId the id to replace
+     * @param newId the replacement id
+     * @return the rewritten packet, which may not be the same buffer
+     */
+    public final ByteBuf rewriteServerbound(ByteBuf packet, int oldId, int newId)
+    {
+        return rewrite( packet, oldId, newId, serverbound );
+    }
+
+    /**
+     * Rewrites the entity ids within a clientbound packet.
+     *
+     * @see #rewriteServerbound(io.netty.buffer.ByteBuf, int, int)
+     */
+    public final ByteBuf rewriteClientbound(ByteBuf packet, int oldId, int newId)
     {
-        rewrite( packet, oldId, newId, serverboundInts, serverboundVarInts );
+        return rewrite( packet, oldId, newId, clientbound );
     }
 
-    public void rewriteClientbound(ByteBuf packet, int oldId, int newId)
+    /**
+     * Copies the packet into a new buffer with room for at least the
+     * specified number of extra bytes, releasing the original. Indexes are
+     * preserved.
+     */
+    protected static ByteBuf grow(ByteBuf packet, int extra)
     {
-        rewrite( packet, oldId, newId, clientboundInts, clientboundVarInts );
+        ByteBuf copy = packet.alloc().buffer( packet.writerIndex() + extra );
+        copy.writeBytes( packet, 0, packet.writerIndex() );
+        copy.readerIndex( packet.readerIndex() );
+        packet.release();
+        return copy;
     }
 
     protected static void rewriteInt(ByteBuf packet, int oldId, int newId, int offset)
@@ -81,37 +138,109 @@ public abstract class EntityMap
         }
     }
 
-    @SuppressFBWarnings("DLS_DEAD_LOCAL_STORE")
-    protected static void rewriteVarInt(ByteBuf packet, int oldId, int newId, int offset)
+    /**
+     * Rewrites the VarInt at the specified offset, which must also be the
+     * current reader index. When the replacement is the same width it is
+     * patched in place, otherwise the packet is spliced into a composite of
+     * the header, the new id and the untouched tail. Either way the reader
+     * index is left after the (rewritten) VarInt.
+     */
+    protected static ByteBuf rewriteVarInt(ByteBuf packet, int oldId, int newId, int offset)
     {
-        // Need to rewrite the packet because VarInts are variable length
         int readId = DefinedPacket.readVarInt( packet );
         int readIdLength = packet.readerIndex() - offset;
         if ( readId == oldId || readId == newId )
         {
-            ByteBuf data = packet.slice().copy();
-            packet.readerIndex( offset );
-            packet.writerIndex( offset );
-            DefinedPacket.writeVarInt( readId == oldId ? newId : oldId, packet );
-            packet.writeBytes( data );
-            data.release();
+            int id = ( readId == oldId ) ? newId : oldId;
+            if ( DefinedPacket.getVarIntSize( id ) == readIdLength )
+            {
+                setVarInt( packet, offset, id );
+            } else
+            {
+                packet = splice( packet, offset, readIdLength, id );
+            }
+        }
+        return packet;
+    }
+
+    private static void setVarInt(ByteBuf packet, int index, int value)
+    {
+        while ( ( value & ~0x7F ) != 0 )
+        {
+            packet.setByte( index++, ( value & 0x7F ) | 0x80 );
+            value >>>= 7;
         }
+        packet.setByte( index, value );
     }
 
-    // Handles simple packets
-    private static void rewrite(ByteBuf packet, int oldId, int newId, boolean[] ints, boolean[] varints)
+    private static ByteBuf splice(ByteBuf packet, int offset, int length, int id)
     {
+        int tailIndex = offset + length;
         int readerIndex = packet.readerIndex();
-        int packetId = DefinedPacket.readVarInt( packet );
-        int packetIdLength = packet.readerIndex() - readerIndex;
 
-        if ( ints[ packetId ] )
+        ByteBuf header = packet.slice( 0, offset ).retain();
+        ByteBuf replacement = packet.alloc().buffer( 5 );
+        DefinedPacket.writeVarInt( id, replacement );
+        ByteBuf tail = packet.slice( tailIndex, packet.writerIndex() - tailIndex ).retain();
+        packet.release();
+
+        CompositeByteBuf spliced = replacement.alloc().compositeBuffer( 3 );
+        spliced.addComponents( header, replacement, tail );
+        // Adding components does not move the writer index
+        spliced.writerIndex( header.readableBytes() + replacement.readableBytes() + tail.readableBytes() );
+        spliced.readerIndex( readerIndex - length + replacement.readableBytes() );
+        return spliced;
+    }
+
+    /**
+     * Rewrites the data field of a Spawn Object packet, which for arrows and
+     * fishing hooks is the id of the owning entity. Expects the reader index
+     * to be positioned at the object type.
+     */
+    protected static ByteBuf rewriteObjectData(ByteBuf packet, int oldId, int newId)
+    {
+        int type = packet.readUnsignedByte();
+        if ( type == 60 || type == 90 )
         {
-            rewriteInt( packet, oldId, newId, readerIndex + packetIdLength );
-        } else if ( varints[ packetId ] )
+            packet.skipBytes( 14 );
+            int position = packet.readerIndex();
+            int readId = packet.readInt();
+            int changedId = -1;
+            if ( readId == oldId )
+            {
+                packet.setInt( position, newId );
+                changedId = newId;
+            } else if ( readId == newId )
+            {
+                packet.setInt( position, oldId );
+                changedId = oldId;
+            }
+            if ( changedId != -1 )
+            {
+                if ( changedId == 0 && readId != 0 )
+                { // Trim off the extra data
+                    packet.writerIndex( packet.writerIndex() - 6 );
+                } else if ( changedId != 0 && readId == 0 )
+                { // Add on the extra data
+                    packet = grow( packet, 6 );
+                    packet.writeZero( 6 );
+                }
+            }
+        }
+        return packet;
+    }
+
+    private static ByteBuf rewrite(ByteBuf packet, int oldId, int newId, RewriteHandler[] handlers)
+    {
+        int readerIndex = packet.readerIndex();
+        int packetId = DefinedPacket.readVarInt( packet );
+
+        RewriteHandler handler = ( packetId >= 0 && packetId < handlers.length ) ? handlers[ packetId ] : null;
+        if ( handler != null )
         {
-            rewriteVarInt( packet, oldId, newId, readerIndex + packetIdLength );
+            packet = handler.rewrite( packet, oldId, newId );
         }
         packet.readerIndex( readerIndex );
+        return packet;
     }
 }
@@ -1,58 +1,56 @@
 package net.md_5.bungee.entitymap;
 
-import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import io.netty.buffer.ByteBuf;
 import net.md_5.bungee.BungeeCord;
 import net.md_5.bungee.UserConnection;
 import net.md_5.bungee.connection.LoginResult;
 import net.md_5.bungee.protocol.DefinedPacket;
+import net.md_5.bungee.protocol.ProtocolConstants;
 
 class EntityMap_1_7_6 extends EntityMap_1_7_2
 {
 
-    @Override
-    @SuppressFBWarnings("DLS_DEAD_LOCAL_STORE")
-    public void rewriteClientbound(ByteBuf packet, int oldId, int newId)
+    EntityMap_1_7_6()
     {
-        super.rewriteClientbound( packet, oldId, newId );
-
-        int readerIndex = packet.readerIndex();
-        int packetId = DefinedPacket.readVarInt( packet );
-        int packetIdLength = packet.readerIndex() - readerIndex;
-        if ( packetId == 0x0C /* Spawn Player */ )
+        addRewrite( 0x0C, ProtocolConstants.Direction.TO_CLIENT, new RewriteHandler() // Spawn Player
         {
-            DefinedPacket.readVarInt( packet );
-            int idLength = packet.readerIndex() - readerIndex - packetIdLength;
-            String uuid = DefinedPacket.readString( packet );
-            String username = DefinedPacket.readString( packet );
-            int props = DefinedPacket.readVarInt( packet );
-            if ( props == 0 )
+            @Override
+            public ByteBuf rewrite(ByteBuf packet, int oldId, int newId)
             {
-                UserConnection player = (UserConnection) BungeeCord.getInstance().getPlayer( username );
-                if ( player != null )
+                packet = rewriteVarInt( packet, oldId, newId, packet.readerIndex() );
+                int idEnd = packet.readerIndex();
+                DefinedPacket.readString( packet ); // UUID
+                String username = DefinedPacket.readString( packet );
+                int props = DefinedPacket.readVarInt( packet );
+                if ( props == 0 )
                 {
-                    LoginResult profile = player.getPendingConnection().getLoginProfile();
-                    if ( profile != null && profile.getProperties() != null
-                            && profile.getProperties().length >= 1 )
+                    UserConnection player = (UserConnection) BungeeCord.getInstance().getPlayer( username );
+                    if ( player != null )
                     {
-                        ByteBuf rest = packet.slice().copy();
-                        packet.readerIndex( readerIndex );
-                        packet.writerIndex( readerIndex + packetIdLength + idLength );
-                        DefinedPacket.writeString( player.getUniqueId().toString(), packet );
-                        DefinedPacket.writeString( username, packet );
-                        DefinedPacket.writeVarInt( profile.getProperties().length, packet );
-                        for ( LoginResult.Property property : profile.getProperties() )
+                        LoginResult profile = player.getPendingConnection().getLoginProfile();
+                        if ( profile != null && profile.getProperties() != null
+                                && profile.getProperties().length >= 1 )
                         {
-                            DefinedPacket.writeString( property.getName(), packet );
-                            DefinedPacket.writeString( property.getValue(), packet );
-                            DefinedPacket.writeString( property.getSignature(), packet );
+                            // The packet grows, so build the new one directly rather than copying the tail twice
+                            ByteBuf rewritten = packet.alloc().buffer( packet.writerIndex() );
+                            rewritten.writeBytes( packet, 0, idEnd );
+                            DefinedPacket.writeString( player.getUniqueId().toString(), rewritten );
+                            DefinedPacket.writeString( username, rewritten );
+                            DefinedPacket.writeVarInt( profile.getProperties().length, rewritten );
+                            for ( LoginResult.Property property : profile.getProperties() )
+                            {
+                                DefinedPacket.writeString( property.getName(), rewritten );
+                                DefinedPacket.writeString( property.getValue(), rewritten );
+                                DefinedPacket.writeString( property.getSignature(), rewritten );
+                            }
+                            rewritten.writeBytes( packet, packet.readerIndex(), packet.readableBytes() );
+                            packet.release();
+                            packet = rewritten;
                         }
-                        packet.writeBytes( rest );
-                        rest.release();
                     }
                 }
+                return packet;
             }
-        }
-        packet.readerIndex( readerIndex );
+        } );
     }
 }
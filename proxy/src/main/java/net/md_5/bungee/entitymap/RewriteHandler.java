@@ -0,0 +1,22 @@
+package net.md_5.bungee.entitymap;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Rewrites the entity ids within a single type of packet. Handlers are
+ * called with the reader index positioned directly after the packet id.
+ */
+interface RewriteHandler
+{
+
+    /**
+     * Rewrite the packet, swapping any occurrences of the two ids.
+     *
+     * @param packet the packet to rewrite
+     * @param oldId the id to replace
+     * @param newId the replacement id
+     * @return the rewritten packet, which may be a new buffer if the size of
+     * the packet changed
+     */
+    ByteBuf rewrite(ByteBuf packet, int oldId, int newId);
+}
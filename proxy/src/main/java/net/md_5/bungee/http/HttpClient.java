@@ -3,34 +3,45 @@ package net.md_5.bungee.http;
 import com.google.common.base.Preconditions;
 import com.google.common.cache.Cache;
 import com.google.common.cache.CacheBuilder;
-import io.netty.bootstrap.Bootstrap;
-import io.netty.channel.ChannelFuture;
-import io.netty.channel.ChannelFutureListener;
-import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoop;
-import io.netty.handler.codec.http.DefaultHttpRequest;
-import io.netty.handler.codec.http.HttpHeaders;
-import io.netty.handler.codec.http.HttpMethod;
-import io.netty.handler.codec.http.HttpRequest;
-import io.netty.handler.codec.http.HttpVersion;
 import java.net.InetAddress;
 import java.net.URI;
 import java.net.UnknownHostException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import net.md_5.bungee.api.Callback;
-import net.md_5.bungee.netty.PipelineUtils;
 
 @NoArgsConstructor(access = AccessLevel.PRIVATE)
 public class HttpClient
 {
 
-    public static final int TIMEOUT = 5000;
+    public static final int TIMEOUT = Integer.getInteger( "bungee.http.timeout", 5000 );
+    /**
+     * How long an idle keep-alive connection is kept open.
+     */
+    public static final int KEEP_ALIVE = Integer.getInteger( "bungee.http.keepAlive", 30000 );
+    /**
+     * Connections per host opened by each event loop.
+     */
+    public static final int MAX_CONNECTIONS = Integer.getInteger( "bungee.http.connections", 4 );
+    /**
+     * Requests which may be sent on a connection before the previous ones
+     * have been answered, 1 disables pipelining.
+     */
+    public static final int PIPELINE_DEPTH = Integer.getInteger( "bungee.http.pipeline", 1 );
+    /**
+     * Times a request is retried after its connection failed.
+     */
+    public static final int RETRIES = Integer.getInteger( "bungee.http.retries", 1 );
+    private static final Map<EventLoop, Map<String, HttpPool>> pools = new ConcurrentHashMap<>();
     private static final Cache<String, InetAddress> addressCache = CacheBuilder.newBuilder().expireAfterWrite( 5, TimeUnit.MINUTES ).build();
 
     @SuppressWarnings("UnusedAssignment")
-    public static void get(String url, EventLoop eventLoop, final Callback<String> callback)
+    public static void get(String url, final EventLoop eventLoop, final Callback<String> callback)
     {
         Preconditions.checkNotNull( url, "url" );
         Preconditions.checkNotNull( eventLoop, "eventLoop" );
@@ -40,7 +51,7 @@ public class HttpClient
 
         Preconditions.checkNotNull( uri.getScheme(), "scheme" );
         Preconditions.checkNotNull( uri.getHost(), "host" );
-        boolean ssl = uri.getScheme().equals( "https" );
+        final boolean ssl = uri.getScheme().equals( "https" );
         int port = uri.getPort();
         if ( port == -1 )
         {
@@ -71,27 +82,39 @@ public class HttpClient
             addressCache.put( uri.getHost(), inetHost );
         }
 
-        ChannelFutureListener future = new ChannelFutureListener()
+        final String path = uri.getRawPath() + ( ( uri.getRawQuery() == null ) ? "" : "?" + uri.getRawQuery() );
+        final String key = uri.getScheme() + "://" + uri.getHost() + "/" + inetHost.getHostAddress() + ":" + port;
+        final InetAddress address = inetHost;
+        final int finalPort = port;
+        Runnable submit = new Runnable()
         {
             @Override
-            public void operationComplete(ChannelFuture future) throws Exception
+            public void run()
             {
-                if ( future.isSuccess() )
+                Map<String, HttpPool> loopPools = pools.get( eventLoop );
+                if ( loopPools == null )
                 {
-                    String path = uri.getRawPath() + ( ( uri.getRawQuery() == null ) ? "" : "?" + uri.getRawQuery() );
-
-                    HttpRequest request = new DefaultHttpRequest( HttpVersion.HTTP_1_1, HttpMethod.GET, path );
-                    request.headers().set( HttpHeaders.Names.HOST, uri.getHost() );
-
-                    future.channel().writeAndFlush( request );
-                } else
+                    loopPools = new HashMap<>();
+                    pools.put( eventLoop, loopPools );
+                }
+                HttpPool pool = loopPools.get( key );
+                if ( pool == null )
                 {
-                    callback.done( null, future.cause() );
+                    pool = new HttpPool( eventLoop, address, uri.getHost(), finalPort, ssl );
+                    loopPools.put( key, pool );
                 }
+
+                pool.submit( new HttpPool.Request( path, callback ) );
             }
         };
 
-        new Bootstrap().channel( PipelineUtils.getChannel() ).group( eventLoop ).handler( new HttpInitializer( callback, ssl ) ).
-                option( ChannelOption.CONNECT_TIMEOUT_MILLIS, TIMEOUT ).remoteAddress( inetHost, port ).connect().addListener( future );
+        // Pools are confined to their event loop
+        if ( eventLoop.inEventLoop() )
+        {
+            submit.run();
+        } else
+        {
+            eventLoop.execute( submit );
+        }
     }
 }
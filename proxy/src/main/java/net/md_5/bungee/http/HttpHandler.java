@@ -2,31 +2,100 @@ package net.md_5.bungee.http;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.handler.codec.http.DefaultFullHttpRequest;
 import io.netty.handler.codec.http.HttpContent;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpMethod;
 import io.netty.handler.codec.http.HttpObject;
+import io.netty.handler.codec.http.HttpRequest;
 import io.netty.handler.codec.http.HttpResponse;
 import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpVersion;
 import io.netty.handler.codec.http.LastHttpContent;
+import io.netty.handler.timeout.IdleStateEvent;
+import java.nio.channels.ClosedChannelException;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import lombok.RequiredArgsConstructor;
-import net.md_5.bungee.api.Callback;
 
+/**
+ * Handles one pooled connection, answering its in flight requests in the
+ * order they were sent.
+ */
 @RequiredArgsConstructor
 public class HttpHandler extends SimpleChannelInboundHandler<HttpObject>
 {
 
-    private final Callback<String> callback;
+    private final HttpPool pool;
+    private final Deque<HttpPool.Request> inFlight = new ArrayDeque<>();
     private final StringBuilder buffer = new StringBuilder();
+    private ChannelHandlerContext ctx;
+    private Throwable responseError;
+    private Throwable cause;
+    private boolean keepAlive = true;
+
+    int getInFlight()
+    {
+        return inFlight.size();
+    }
+
+    void send(final HttpPool.Request request)
+    {
+        inFlight.add( request );
+        request.timeout = ctx.executor().schedule( new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                // Pipelined requests behind this one will be retried on another connection
+                inFlight.remove( request );
+                request.callback.done( null, new TimeoutException( "Timed out waiting for response from " + pool.getHost() ) );
+                ctx.close();
+            }
+        }, HttpClient.TIMEOUT, TimeUnit.MILLISECONDS );
+
+        HttpRequest http = new DefaultFullHttpRequest( HttpVersion.HTTP_1_1, HttpMethod.GET, request.path );
+        http.headers().set( HttpHeaders.Names.HOST, pool.getHost() );
+        http.headers().set( HttpHeaders.Names.CONNECTION, HttpHeaders.Values.KEEP_ALIVE );
+        ctx.writeAndFlush( http );
+    }
 
     @Override
-    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception
+    public void handlerAdded(ChannelHandlerContext ctx) throws Exception
     {
-        try
+        this.ctx = ctx;
+    }
+
+    @Override
+    public void channelInactive(ChannelHandlerContext ctx) throws Exception
+    {
+        ArrayList<HttpPool.Request> unanswered = new ArrayList<>( inFlight );
+        inFlight.clear();
+        for ( HttpPool.Request request : unanswered )
         {
-            callback.done( null, cause );
-        } finally
+            request.timeout.cancel( false );
+        }
+        pool.closed( this, unanswered, ( cause != null ) ? cause : new ClosedChannelException() );
+    }
+
+    @Override
+    public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception
+    {
+        this.cause = cause;
+        ctx.close();
+    }
+
+    @Override
+    public void userEventTriggered(ChannelHandlerContext ctx, Object evt) throws Exception
+    {
+        // Idle keep-alive connection
+        if ( evt instanceof IdleStateEvent && inFlight.isEmpty() )
         {
-            ctx.channel().close();
+            ctx.close();
         }
     }
 
@@ -37,38 +106,56 @@ public class HttpHandler extends SimpleChannelInboundHandler<HttpObject>
         {
             HttpResponse response = (HttpResponse) msg;
             int responseCode = response.getStatus().code();
+            keepAlive = HttpHeaders.isKeepAlive( response );
 
-            if ( responseCode == HttpResponseStatus.NO_CONTENT.code() )
-            {
-                done( ctx );
-                return;
-            }
-
-            if ( responseCode != HttpResponseStatus.OK.code() )
+            if ( responseCode != HttpResponseStatus.OK.code() && responseCode != HttpResponseStatus.NO_CONTENT.code() )
             {
-                throw new IllegalStateException( "Expected HTTP response 200 OK, got " + response.getStatus() );
+                responseError = new IllegalStateException( "Expected HTTP response 200 OK, got " + response.getStatus() );
             }
         }
         if ( msg instanceof HttpContent )
         {
             HttpContent content = (HttpContent) msg;
-            buffer.append( content.content().toString( Charset.forName( "UTF-8" ) ) );
+            if ( responseError == null )
+            {
+                buffer.append( content.content().toString( Charset.forName( "UTF-8" ) ) );
+            }
 
             if ( msg instanceof LastHttpContent )
             {
-                done( ctx );
+                done();
             }
         }
     }
 
-    private void done(ChannelHandlerContext ctx)
+    private void done()
     {
+        HttpPool.Request request = inFlight.poll();
+        String result = buffer.toString();
+        Throwable error = responseError;
+        buffer.setLength( 0 );
+        responseError = null;
+
+        if ( !keepAlive )
+        {
+            ctx.close();
+        }
+        if ( request == null )
+        {
+            // Already timed out
+            return;
+        }
+        request.timeout.cancel( false );
+
         try
         {
-            callback.done( buffer.toString(), null );
+            request.callback.done( ( error == null ) ? result : null, error );
         } finally
         {
-            ctx.channel().close();
+            if ( keepAlive )
+            {
+                pool.released( this );
+            }
         }
     }
 }
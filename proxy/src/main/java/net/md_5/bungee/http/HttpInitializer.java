@@ -4,39 +4,55 @@ import io.netty.channel.Channel;
 import io.netty.channel.ChannelInitializer;
 import io.netty.handler.codec.http.HttpClientCodec;
 import io.netty.handler.ssl.SslHandler;
-import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.IdleStateHandler;
+import java.security.GeneralSecurityException;
 import java.util.concurrent.TimeUnit;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.TrustManager;
 import lombok.RequiredArgsConstructor;
-import net.md_5.bungee.api.Callback;
 
 @RequiredArgsConstructor
 public class HttpInitializer extends ChannelInitializer<Channel>
 {
 
-    private final Callback<String> callback;
+    private static SSLContext context;
+    //
+    private final HttpPool pool;
     private final boolean ssl;
+    private final String host;
+    private final int port;
 
-    @Override
-    protected void initChannel(Channel ch) throws Exception
+    /**
+     * A single context is shared so that its session cache lets new
+     * connections resume earlier TLS sessions instead of a full handshake.
+     */
+    private static synchronized SSLContext getContext() throws GeneralSecurityException
     {
-        ch.pipeline().addLast( "timeout", new ReadTimeoutHandler( HttpClient.TIMEOUT, TimeUnit.MILLISECONDS ) );
-        if ( ssl )
+        if ( context == null )
         {
-            SSLContext context = SSLContext.getInstance( "TLS" );
+            context = SSLContext.getInstance( "TLS" );
             context.init( null, new TrustManager[]
             {
                 TrustingX509Manager.getInstance()
             }, null );
+        }
+        return context;
+    }
 
-            SSLEngine engine = context.createSSLEngine();
+    @Override
+    protected void initChannel(Channel ch) throws Exception
+    {
+        ch.pipeline().addLast( "idle", new IdleStateHandler( 0, 0, HttpClient.KEEP_ALIVE, TimeUnit.MILLISECONDS ) );
+        if ( ssl )
+        {
+            // Sessions are cached by host and port
+            SSLEngine engine = getContext().createSSLEngine( host, port );
             engine.setUseClientMode( true );
 
             ch.pipeline().addLast( "ssl", new SslHandler( engine ) );
         }
         ch.pipeline().addLast( "http", new HttpClientCodec() );
-        ch.pipeline().addLast( "handler", new HttpHandler( callback ) );
+        ch.pipeline().addLast( "handler", new HttpHandler( pool ) );
     }
 }
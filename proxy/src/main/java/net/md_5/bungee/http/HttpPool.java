@@ -0,0 +1,153 @@
+package net.md_5.bungee.http;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelOption;
+import io.netty.channel.EventLoop;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.epoll.EpollSocketChannel;
+import io.netty.channel.socket.nio.NioSocketChannel;
+import java.net.InetAddress;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ScheduledFuture;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import net.md_5.bungee.api.Callback;
+
+/**
+ * Keep-alive connections to a single host, owned by one event loop. Only ever
+ * touched from that event loop, so no locking is needed.
+ */
+@RequiredArgsConstructor
+class HttpPool
+{
+
+    @Getter
+    private final EventLoop eventLoop;
+    private final InetAddress address;
+    @Getter
+    private final String host;
+    private final int port;
+    private final boolean ssl;
+    //
+    private final List<HttpHandler> connections = new ArrayList<>();
+    private final Queue<Request> waiting = new ArrayDeque<>();
+    private int connecting;
+
+    void submit(Request request)
+    {
+        HttpHandler best = null;
+        for ( HttpHandler connection : connections )
+        {
+            if ( connection.getInFlight() < HttpClient.PIPELINE_DEPTH && ( best == null || connection.getInFlight() < best.getInFlight() ) )
+            {
+                best = connection;
+            }
+        }
+
+        // Only pipeline behind another request once no more connections may be opened
+        if ( best != null && best.getInFlight() == 0 )
+        {
+            best.send( request );
+        } else if ( connections.size() + connecting < HttpClient.MAX_CONNECTIONS )
+        {
+            waiting.add( request );
+            connect();
+        } else if ( best != null )
+        {
+            best.send( request );
+        } else
+        {
+            waiting.add( request );
+        }
+    }
+
+    private Class<? extends Channel> getChannel()
+    {
+        // Match whichever transport the event loop belongs to
+        return ( eventLoop.parent() instanceof EpollEventLoopGroup ) ? EpollSocketChannel.class : NioSocketChannel.class;
+    }
+
+    private void connect()
+    {
+        connecting++;
+        new Bootstrap().channel( getChannel() ).group( eventLoop ).handler( new HttpInitializer( this, ssl, host, port ) ).
+                option( ChannelOption.CONNECT_TIMEOUT_MILLIS, HttpClient.TIMEOUT ).remoteAddress( address, port ).connect().addListener( new ChannelFutureListener()
+                {
+                    @Override
+                    public void operationComplete(ChannelFuture future) throws Exception
+                    {
+                        connecting--;
+                        if ( future.isSuccess() )
+                        {
+                            HttpHandler connection = future.channel().pipeline().get( HttpHandler.class );
+                            connections.add( connection );
+                            released( connection );
+                        } else if ( connections.isEmpty() && connecting == 0 )
+                        {
+                            // Nothing left which could serve the waiting requests
+                            List<Request> failed = new ArrayList<>( waiting );
+                            waiting.clear();
+                            for ( Request request : failed )
+                            {
+                                retry( request, future.cause() );
+                            }
+                        }
+                    }
+                } );
+    }
+
+    /**
+     * Called when a connection has capacity for more requests.
+     */
+    void released(HttpHandler connection)
+    {
+        while ( !waiting.isEmpty() && connection.getInFlight() < HttpClient.PIPELINE_DEPTH )
+        {
+            connection.send( waiting.poll() );
+        }
+    }
+
+    /**
+     * Called once a connection has closed, with the requests it had not yet
+     * answered.
+     */
+    void closed(HttpHandler connection, List<Request> unanswered, Throwable cause)
+    {
+        connections.remove( connection );
+        for ( Request request : unanswered )
+        {
+            retry( request, cause );
+        }
+        if ( !waiting.isEmpty() && connections.size() + connecting < HttpClient.MAX_CONNECTIONS )
+        {
+            connect();
+        }
+    }
+
+    private void retry(Request request, Throwable cause)
+    {
+        if ( request.attempts++ < HttpClient.RETRIES )
+        {
+            submit( request );
+        } else
+        {
+            request.callback.done( null, cause );
+        }
+    }
+
+    @RequiredArgsConstructor
+    static class Request
+    {
+
+        final String path;
+        final Callback<String> callback;
+        int attempts;
+        ScheduledFuture<?> timeout;
+    }
+}
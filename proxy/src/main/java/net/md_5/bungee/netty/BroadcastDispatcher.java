@@ -0,0 +1,121 @@
+package net.md_5.bungee.netty;
+
+import io.netty.channel.EventLoop;
+import io.netty.util.ReferenceCountUtil;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Sends one broadcast to many channels. Writing to a channel from outside its
+ * event loop queues a task and wakes that loop for every packet, so instead
+ * the recipients are grouped by event loop and each loop is handed a single
+ * task which writes to all of its channels and flushes each of them once.
+ * <p>
+ * A dispatcher is used for one broadcast: add every recipient, then call
+ * {@link #dispatch()}.
+ */
+public final class BroadcastDispatcher
+{
+
+    private static final AtomicLong broadcasts = new AtomicLong();
+    private static final AtomicLong wakeups = new AtomicLong();
+    //
+    private final Map<EventLoop, LoopBatch> batches = new IdentityHashMap<>();
+
+    /**
+     * Queues a packet for a channel. Ownership of reference counted packets
+     * passes to the dispatcher.
+     *
+     * @param channel the channel to write to
+     * @param packet the packet to write
+     */
+    public void add(ChannelWrapper channel, Object packet)
+    {
+        EventLoop loop = channel.getHandle().eventLoop();
+        LoopBatch batch = batches.get( loop );
+        if ( batch == null )
+        {
+            batches.put( loop, batch = new LoopBatch() );
+        }
+        batch.channels.add( channel );
+        batch.packets.add( packet );
+    }
+
+    /**
+     * Writes all queued packets, submitting at most one task to each event
+     * loop. Channels belonging to the current thread are written immediately.
+     */
+    public void dispatch()
+    {
+        broadcasts.incrementAndGet();
+        for ( Map.Entry<EventLoop, LoopBatch> entry : batches.entrySet() )
+        {
+            EventLoop loop = entry.getKey();
+            LoopBatch batch = entry.getValue();
+            if ( loop.inEventLoop() )
+            {
+                batch.run();
+                continue;
+            }
+
+            try
+            {
+                loop.execute( batch );
+                wakeups.incrementAndGet();
+            } catch ( RejectedExecutionException ex )
+            {
+                // Loop is shutting down along with its channels
+                batch.release();
+            }
+        }
+        batches.clear();
+    }
+
+    /**
+     * Gets the mean number of event loop tasks submitted per broadcast since
+     * startup. Without batching this would be one per recipient.
+     *
+     * @return wakeups per broadcast
+     */
+    public static double getWakeupsPerBroadcast()
+    {
+        long count = broadcasts.get();
+        return ( count == 0 ) ? 0 : (double) wakeups.get() / count;
+    }
+
+    private static final class LoopBatch implements Runnable
+    {
+
+        private final List<ChannelWrapper> channels = new ArrayList<>();
+        private final List<Object> packets = new ArrayList<>();
+
+        @Override
+        public void run()
+        {
+            int written = 0;
+            for ( int i = 0; i < channels.size(); i++ )
+            {
+                ChannelWrapper channel = channels.get( i );
+                if ( channel.writeOnly( packets.get( i ) ) )
+                {
+                    // Already on the loop, so this goes straight to the socket
+                    channel.getHandle().flush();
+                    written++;
+                }
+            }
+            ChannelWrapper.recordFlushes( written, written );
+        }
+
+        private void release()
+        {
+            for ( Object packet : packets )
+            {
+                ReferenceCountUtil.release( packet );
+            }
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package net.md_5.bungee.netty;
 
-import net.md_5.bungee.protocol.PacketCompressor;
-import net.md_5.bungee.protocol.PacketDecompressor;
+import net.md_5.bungee.compress.PacketCompressor;
+import net.md_5.bungee.compress.PacketDecompressor;
 import net.md_5.bungee.protocol.PacketWrapper;
 import com.google.common.base.Preconditions;
+import io.netty.buffer.ByteBuf;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelHandlerContext;
+import java.util.concurrent.atomic.AtomicLong;
 import lombok.Getter;
 import net.md_5.bungee.protocol.MinecraftDecoder;
 import net.md_5.bungee.protocol.MinecraftEncoder;
@@ -15,9 +17,13 @@ import net.md_5.bungee.protocol.Protocol;
 public class ChannelWrapper
 {
 
+    private static final AtomicLong packetsWritten = new AtomicLong();
+    private static final AtomicLong flushes = new AtomicLong();
     private final Channel ch;
     @Getter
     private volatile boolean closed;
+    @Getter
+    private volatile int compressionThreshold = -1;
 
     public ChannelWrapper(ChannelHandlerContext ctx)
     {
@@ -38,17 +44,88 @@ public class ChannelWrapper
 
     public void write(Object packet)
     {
-        if ( !closed )
+        if ( writeOnly( packet ) && !ReadBatch.add( this ) )
+        {
+            recordFlushes( 1, 1 );
+            ch.flush();
+        }
+    }
+
+    /**
+     * Writes a packet without flushing it.
+     *
+     * @param packet the packet to write
+     * @return false if the channel is closed and nothing was written
+     */
+    boolean writeOnly(Object packet)
+    {
+        if ( closed )
         {
-            if ( packet instanceof PacketWrapper )
+            if ( packet instanceof ByteBuf )
             {
-                ( (PacketWrapper) packet ).setReleased( true );
-                ch.write( ( (PacketWrapper) packet ).buf, ch.voidPromise() );
+                // Pre-encoded buffers are owned by the write, which is not happening
+                ( (ByteBuf) packet ).release();
+            }
+            return false;
+        }
+
+        if ( packet instanceof PacketWrapper )
+        {
+            PacketWrapper wrapper = (PacketWrapper) packet;
+            wrapper.setReleased( true );
+            if ( wrapper.compressed )
+            {
+                writeCompressed( wrapper.buf );
             } else
             {
-                ch.write( packet, ch.voidPromise() );
+                ch.write( wrapper.buf, ch.voidPromise() );
             }
-            ch.flush();
+        } else
+        {
+            ch.write( packet, ch.voidPromise() );
+        }
+        return true;
+    }
+
+    /**
+     * Immediately flushes any packets which are being held back to be flushed
+     * together with the rest of the current read batch. Only needed for
+     * latency critical packets.
+     */
+    public void flushNow()
+    {
+        recordFlushes( 0, 1 );
+        ch.flush();
+    }
+
+    static void recordFlushes(int packets, int count)
+    {
+        packetsWritten.addAndGet( packets );
+        flushes.addAndGet( count );
+    }
+
+    /**
+     * Gets the mean number of packets written per flush since startup.
+     *
+     * @return packets per flush
+     */
+    public static double getPacketsPerFlush()
+    {
+        long count = flushes.get();
+        return ( count == 0 ) ? 0 : (double) packetsWritten.get() / count;
+    }
+
+    private void writeCompressed(ByteBuf buf)
+    {
+        // Skip the encoder and compressor, this frame is already in its final form
+        ChannelHandlerContext compressor = ch.pipeline().context( PacketCompressor.class );
+        if ( compressor != null )
+        {
+            compressor.write( buf, ch.voidPromise() );
+        } else
+        {
+            // Compression is only ever removed as the channel closes
+            buf.release();
         }
     }
 
@@ -76,6 +153,7 @@ public class ChannelWrapper
 
     public void setCompressionThreshold(int compressionThreshold)
     {
+        this.compressionThreshold = compressionThreshold;
         if ( ch.pipeline().get( PacketCompressor.class ) == null && compressionThreshold != -1 )
         {
             addBefore( PipelineUtils.PACKET_ENCODER, "compress", new PacketCompressor() );
@@ -97,4 +175,23 @@ public class ChannelWrapper
             ch.pipeline().remove( "decompress" );
         }
     }
+
+    /**
+     * Allows compressed frames of the specified packet ids to be forwarded to
+     * the target channel without decompressing them. This is only enabled if
+     * both channels use the same compression threshold, as otherwise the
+     * frames would not be valid for the target.
+     *
+     * @param target the channel packets will be forwarded to
+     * @param ids the packet ids which may be forwarded compressed
+     */
+    public void setCompressionPassthrough(ChannelWrapper target, boolean[] ids)
+    {
+        PacketDecompressor decompressor = ch.pipeline().get( PacketDecompressor.class );
+        if ( decompressor != null )
+        {
+            boolean matches = compressionThreshold != -1 && compressionThreshold == target.getCompressionThreshold();
+            decompressor.setPassthrough( ( matches ) ? ids : null );
+        }
+    }
 }
@@ -64,6 +64,8 @@ public class HandlerBoss extends ChannelInboundHandlerAdapter
     {
         if ( handler != null )
         {
+            ReadBatch.begin( ctx.channel().eventLoop() );
+
             PacketWrapper packet = (PacketWrapper) msg;
             boolean sendPacket = true;
             try
@@ -89,6 +91,13 @@ public class HandlerBoss extends ChannelInboundHandlerAdapter
         }
     }
 
+    @Override
+    public void channelReadComplete(ChannelHandlerContext ctx) throws Exception
+    {
+        ReadBatch.complete();
+        super.channelReadComplete( ctx );
+    }
+
     @Override
     public void exceptionCaught(ChannelHandlerContext ctx, Throwable cause) throws Exception
     {
@@ -1,13 +1,17 @@
 package net.md_5.bungee.netty;
 
+import io.netty.bootstrap.ServerBootstrap;
 import io.netty.buffer.PooledByteBufAllocator;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelException;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandler;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
 import io.netty.channel.ServerChannel;
 import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollChannelOption;
 import io.netty.channel.epoll.EpollDatagramChannel;
 import io.netty.channel.epoll.EpollEventLoopGroup;
 import io.netty.channel.epoll.EpollServerSocketChannel;
@@ -23,6 +27,7 @@ import java.net.InetSocketAddress;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
+import java.util.logging.Logger;
 import net.md_5.bungee.BungeeCord;
 import net.md_5.bungee.BungeeServerInfo;
 import net.md_5.bungee.UserConnection;
@@ -77,29 +82,82 @@ public class PipelineUtils
     public static final String LEGACY_DECODER = "legacy-decoder";
     public static final String LEGACY_KICKER = "legacy-kick";
 
-    private static boolean epoll;
+    private static final boolean tryEpoll = !PlatformDependent.isWindows() && Boolean.parseBoolean( System.getProperty( "bungee.epoll", "true" ) );
+    private static final boolean epoll = tryEpoll && Epoll.isAvailable();
 
-    static
+    /**
+     * Logs which transport is used, and why if epoll was wanted but is not
+     * working.
+     *
+     * @param logger the logger to log to
+     */
+    public static void logTransport(Logger logger)
     {
-        if ( !PlatformDependent.isWindows() && Boolean.parseBoolean( System.getProperty( "bungee.epoll", "false" ) ) )
+        if ( tryEpoll )
         {
-            ProxyServer.getInstance().getLogger().info( "Not on Windows, attempting to use enhanced EpollEventLoop" );
+            logger.info( "Not on Windows, attempting to use enhanced EpollEventLoop" );
 
-            if ( epoll = Epoll.isAvailable() )
+            if ( epoll )
             {
-                ProxyServer.getInstance().getLogger().info( "Epoll is working, utilising it!" );
+                logger.info( "Epoll is working, utilising it!" );
             } else
             {
-                ProxyServer.getInstance().getLogger().log( Level.WARNING, "Epoll is not working, falling back to NIO: {0}", Util.exception( Epoll.unavailabilityCause() ) );
+                logger.log( Level.WARNING, "Epoll is not working, falling back to NIO: {0}", Util.exception( Epoll.unavailabilityCause() ) );
             }
         }
     }
 
+    /**
+     * Binds the channels a listener accepts connections on. Several acceptors
+     * share the host with SO_REUSEPORT, and as each channel is registered to
+     * the next event loop the accepts are spread between them. This needs
+     * epoll, without it a single channel is bound.
+     *
+     * @param info the listener to bind
+     * @param group the event loops to accept and handle connections on
+     * @param childHandler the handler for accepted channels
+     * @param listener notified as each channel is bound
+     * @return the number of channels being bound
+     */
+    public static int bindListener(ListenerInfo info, EventLoopGroup group, ChannelHandler childHandler, ChannelFutureListener listener)
+    {
+        ServerBootstrap bootstrap = new ServerBootstrap()
+                .channel( getServerChannel() )
+                .option( ChannelOption.SO_REUSEADDR, true ) // TODO: Move this elsewhere!
+                .childAttr( LISTENER, info )
+                .childHandler( childHandler )
+                .group( group )
+                .localAddress( info.getHost() );
+
+        int acceptors = info.getAcceptors();
+        if ( acceptors > 1 )
+        {
+            if ( epoll )
+            {
+                bootstrap.option( EpollChannelOption.SO_REUSEPORT, true );
+            } else
+            {
+                ProxyServer.getInstance().getLogger().log( Level.WARNING, "Multiple acceptors on {0} require epoll, using one", info.getHost() );
+                acceptors = 1;
+            }
+        }
+        for ( int i = 0; i < acceptors; i++ )
+        {
+            bootstrap.bind().addListener( listener );
+        }
+        return acceptors;
+    }
+
     public static EventLoopGroup newEventLoopGroup(int threads, ThreadFactory factory)
     {
         return epoll ? new EpollEventLoopGroup( threads, factory ) : new NioEventLoopGroup( threads, factory );
     }
 
+    public static boolean isEpoll()
+    {
+        return epoll;
+    }
+
     public static Class<? extends ServerChannel> getServerChannel()
     {
         return epoll ? EpollServerSocketChannel.class : NioServerSocketChannel.class;
@@ -0,0 +1,104 @@
+package net.md_5.bungee.netty;
+
+import io.netty.channel.EventLoop;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tracks the channels written to while an event loop thread handles a batch
+ * of reads, so that each is flushed once when the batch completes rather than
+ * after every packet.
+ */
+final class ReadBatch implements Runnable
+{
+
+    private static final boolean ENABLED = Boolean.parseBoolean( System.getProperty( "bungee.flushConsolidation", "true" ) );
+    private static final ThreadLocal<ReadBatch> CURRENT = new ThreadLocal<ReadBatch>()
+    {
+        @Override
+        protected ReadBatch initialValue()
+        {
+            return new ReadBatch();
+        }
+    };
+    private final Set<ChannelWrapper> pending = new LinkedHashSet<>();
+    private boolean active;
+    private int packets;
+
+    /**
+     * Marks the start of a read on the current thread. Writes made until the
+     * batch completes are held back and flushed together.
+     *
+     * @param loop the event loop running the read
+     */
+    static void begin(EventLoop loop)
+    {
+        if ( !ENABLED )
+        {
+            return;
+        }
+
+        ReadBatch batch = CURRENT.get();
+        if ( !batch.active )
+        {
+            batch.active = true;
+            // Should the read never be completed, flush once the loop gets to its tasks
+            loop.execute( batch );
+        }
+    }
+
+    /**
+     * Completes the batch on the current thread, flushing all channels
+     * written to.
+     */
+    static void complete()
+    {
+        if ( ENABLED )
+        {
+            CURRENT.get().run();
+        }
+    }
+
+    /**
+     * Defers flushing a channel until the current batch completes.
+     *
+     * @param channel the channel just written to
+     * @return false if there is no batch on this thread and the channel should
+     * be flushed immediately
+     */
+    static boolean add(ChannelWrapper channel)
+    {
+        if ( !ENABLED )
+        {
+            return false;
+        }
+
+        ReadBatch batch = CURRENT.get();
+        if ( !batch.active )
+        {
+            return false;
+        }
+
+        batch.pending.add( channel );
+        batch.packets++;
+        return true;
+    }
+
+    @Override
+    public void run()
+    {
+        active = false;
+        if ( pending.isEmpty() )
+        {
+            return;
+        }
+
+        ChannelWrapper.recordFlushes( packets, pending.size() );
+        for ( ChannelWrapper channel : pending )
+        {
+            channel.getHandle().flush();
+        }
+        pending.clear();
+        packets = 0;
+    }
+}
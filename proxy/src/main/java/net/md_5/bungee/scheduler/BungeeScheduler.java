@@ -4,14 +4,18 @@ import com.google.common.base.Preconditions;
 import com.google.common.collect.HashMultimap;
 import com.google.common.collect.Multimap;
 import com.google.common.collect.Multimaps;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import gnu.trove.TCollections;
 import gnu.trove.map.TIntObjectMap;
 import gnu.trove.map.hash.TIntObjectHashMap;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
+import lombok.AccessLevel;
+import lombok.Getter;
 import net.md_5.bungee.api.plugin.Plugin;
 import net.md_5.bungee.api.scheduler.ScheduledTask;
 import net.md_5.bungee.api.scheduler.TaskScheduler;
@@ -22,6 +26,12 @@ public class BungeeScheduler implements TaskScheduler
     private final AtomicInteger taskCounter = new AtomicInteger();
     private final TIntObjectMap<BungeeTask> tasks = TCollections.synchronizedMap( new TIntObjectHashMap<BungeeTask>() );
     private final Multimap<Plugin, BungeeTask> tasksByPlugin = Multimaps.synchronizedMultimap( HashMultimap.<Plugin, BungeeTask>create() );
+    /**
+     * Single thread which waits out all delays, task bodies are always run on
+     * their plugin's executor.
+     */
+    @Getter(AccessLevel.PACKAGE)
+    private final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor( 1, new ThreadFactoryBuilder().setNameFormat( "Bungee Scheduler" ).setDaemon( true ).build() );
     //
     private final Unsafe unsafe = new Unsafe()
     {
@@ -33,12 +43,20 @@ public class BungeeScheduler implements TaskScheduler
         }
     };
 
+    public BungeeScheduler()
+    {
+        timer.setRemoveOnCancelPolicy( true );
+    }
+
     @Override
     public void cancel(int id)
     {
         BungeeTask task = tasks.remove( id );
-        task.cancel();
-        tasksByPlugin.values().remove( task );
+        if ( task != null )
+        {
+            task.cancel();
+            tasksByPlugin.values().remove( task );
+        }
     }
 
     @Override
@@ -51,9 +69,12 @@ public class BungeeScheduler implements TaskScheduler
     public int cancel(Plugin plugin)
     {
         Set<ScheduledTask> toRemove = new HashSet<>();
-        for ( ScheduledTask task : tasksByPlugin.get( plugin ) )
+        synchronized ( tasksByPlugin )
         {
-            toRemove.add( task );
+            for ( ScheduledTask task : tasksByPlugin.get( plugin ) )
+            {
+                toRemove.add( task );
+            }
         }
         for ( ScheduledTask task : toRemove )
         {
@@ -81,7 +102,8 @@ public class BungeeScheduler implements TaskScheduler
         Preconditions.checkNotNull( task, "task" );
         BungeeTask prepared = new BungeeTask( this, taskCounter.getAndIncrement(), owner, task, delay, period, unit );
         tasks.put( prepared.getId(), prepared );
-        owner.getExecutorService().execute( prepared );
+        tasksByPlugin.put( owner, prepared );
+        prepared.schedule( prepared.getDelay() );
         return prepared;
     }
 
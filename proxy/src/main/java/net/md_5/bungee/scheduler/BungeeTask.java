@@ -1,7 +1,11 @@
 package net.md_5.bungee.scheduler;
 
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import lombok.Data;
 import net.md_5.bungee.api.ProxyServer;
@@ -12,6 +16,12 @@ import net.md_5.bungee.api.scheduler.ScheduledTask;
 public class BungeeTask implements Runnable, ScheduledTask
 {
 
+    /**
+     * Milliseconds to wait before handing a task to an executor which was
+     * full again.
+     */
+    private static final long RETRY_DELAY = 50;
+    //
     private final BungeeScheduler sched;
     private final int id;
     private final Plugin owner;
@@ -20,6 +30,10 @@ public class BungeeTask implements Runnable, ScheduledTask
     private final long delay;
     private final long period;
     private final AtomicBoolean running = new AtomicBoolean( true );
+    /**
+     * The next run, while it is waiting on the scheduler's timer.
+     */
+    private final AtomicReference<ScheduledFuture<?>> pending = new AtomicReference<>();
 
     public BungeeTask(BungeeScheduler sched, int id, Plugin owner, Runnable task, long delay, long period, TimeUnit unit)
     {
@@ -34,48 +48,94 @@ public class BungeeTask implements Runnable, ScheduledTask
     @Override
     public void cancel()
     {
-        running.set( false );
+        if ( running.getAndSet( false ) )
+        {
+            ScheduledFuture<?> future = pending.getAndSet( null );
+            if ( future != null )
+            {
+                future.cancel( false );
+            }
+            sched.cancel( this );
+        }
     }
 
-    @Override
-    public void run()
+    /**
+     * Runs the task on its owner's executor once the delay has passed. Only
+     * the timer thread waits, so no executor thread is held in the meantime.
+     */
+    void schedule(long delay)
     {
-        if ( delay > 0 )
+        if ( delay <= 0 )
         {
-            try
-            {
-                Thread.sleep( delay );
-            } catch ( InterruptedException ex )
-            {
-                Thread.currentThread().interrupt();
-            }
+            dispatch();
+            return;
         }
 
-        while ( running.get() )
+        ScheduledFuture<?> future = sched.getTimer().schedule( new Runnable()
         {
-            try
-            {
-                task.run();
-            } catch ( Throwable t )
+            @Override
+            public void run()
             {
-                ProxyServer.getInstance().getLogger().log( Level.SEVERE, String.format( "Task %s encountered an exception", this ), t );
+                dispatch();
             }
+        }, delay, TimeUnit.MILLISECONDS );
+        pending.set( future );
 
-            // If we have a period of 0 or less, only run once
-            if ( period <= 0 )
-            {
-                break;
-            }
+        // Cancelled while we were scheduling
+        if ( !running.get() )
+        {
+            future.cancel( false );
+        }
+    }
 
-            try
+    /**
+     * Hands the task to its owner's executor. A full executor rejects tasks
+     * rather than blocking or running them here, in which case the run is
+     * retried shortly, so a busy plugin delays its tasks but never loses them
+     * or holds up the timer thread. Tasks are only dropped once the executor
+     * has been shut down along with its plugin.
+     */
+    private void dispatch()
+    {
+        ExecutorService executor = owner.getExecutorService();
+        try
+        {
+            executor.execute( this );
+        } catch ( RejectedExecutionException ex )
+        {
+            if ( executor.isShutdown() )
             {
-                Thread.sleep( period );
-            } catch ( InterruptedException ex )
+                cancel();
+            } else if ( running.get() )
             {
-                Thread.currentThread().interrupt();
+                schedule( RETRY_DELAY );
             }
         }
+    }
+
+    @Override
+    public void run()
+    {
+        if ( !running.get() )
+        {
+            return;
+        }
+
+        try
+        {
+            task.run();
+        } catch ( Throwable t )
+        {
+            ProxyServer.getInstance().getLogger().log( Level.SEVERE, String.format( "Task %s encountered an exception", this ), t );
+        }
 
-        sched.cancel( this );
+        // If we have a period of 0 or less, only run once
+        if ( period <= 0 )
+        {
+            cancel();
+        } else if ( running.get() )
+        {
+            schedule( period );
+        }
     }
 }
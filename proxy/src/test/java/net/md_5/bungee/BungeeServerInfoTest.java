@@ -0,0 +1,43 @@
+package net.md_5.bungee;
+
+import java.net.InetSocketAddress;
+import java.util.Collection;
+import java.util.UUID;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BungeeServerInfoTest
+{
+
+    @Test
+    public void testPlayers()
+    {
+        BungeeServerInfo server = new BungeeServerInfo( "lobby", new InetSocketAddress( "127.0.0.1", 25565 ), "", false );
+        ProxiedPlayer first = PlayerRegistryTest.player( "first", UUID.randomUUID() );
+        ProxiedPlayer second = PlayerRegistryTest.player( "second", UUID.randomUUID() );
+
+        Collection<ProxiedPlayer> players = server.getPlayers();
+        server.addPlayer( first );
+        server.addPlayer( second );
+        server.addPlayer( first );
+        Assert.assertEquals( 2, server.getPlayerCount() );
+        Assert.assertEquals( "View should reflect joins", 2, players.size() );
+        Assert.assertSame( "View should not be copied", players, server.getPlayers() );
+
+        // Iteration must tolerate players leaving part way through
+        for ( ProxiedPlayer player : players )
+        {
+            server.removePlayer( first );
+        }
+        Assert.assertEquals( 1, server.getPlayerCount() );
+        Assert.assertTrue( players.contains( second ) );
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testUnmodifiable()
+    {
+        BungeeServerInfo server = new BungeeServerInfo( "lobby", new InetSocketAddress( "127.0.0.1", 25565 ), "", false );
+        server.getPlayers().add( PlayerRegistryTest.player( "first", UUID.randomUUID() ) );
+    }
+}
@@ -0,0 +1,156 @@
+package net.md_5.bungee;
+
+import io.netty.channel.EventLoop;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import javax.crypto.SecretKey;
+import net.md_5.bungee.api.Callback;
+import net.md_5.bungee.protocol.packet.EncryptionRequest;
+import net.md_5.bungee.protocol.packet.EncryptionResponse;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Drives many encryption handshakes through a single event loop, decrypting
+ * either on the loop itself or on the crypto pool, and measures how long the
+ * loop is unable to service other channels.
+ */
+public class EncryptionTest
+{
+
+    private static final int HANDSHAKES = 2000;
+
+    private static EncryptionResponse respond(EncryptionRequest request, SecretKey secret) throws Exception
+    {
+        return new EncryptionResponse( EncryptionUtil.encrypt( EncryptionUtil.keys.getPublic(), secret.getEncoded() ),
+                EncryptionUtil.encrypt( EncryptionUtil.keys.getPublic(), request.getVerifyToken() ) );
+    }
+
+    @Test
+    public void testAsyncSecret() throws Exception
+    {
+        EventLoopGroup group = new NioEventLoopGroup( 1 );
+        try
+        {
+            final EventLoop loop = group.next();
+            final SecretKey expected = EncryptionUtil.getSecret();
+            EncryptionRequest request = EncryptionUtil.encryptRequest();
+            final AtomicReference<Object> result = new AtomicReference<>();
+            final CountDownLatch done = new CountDownLatch( 1 );
+
+            EncryptionUtil.getSecret( respond( request, expected ), request, loop, new Callback<SecretKey>()
+            {
+                @Override
+                public void done(SecretKey secret, Throwable error)
+                {
+                    result.set( loop.inEventLoop() ? secret : error );
+                    done.countDown();
+                }
+            } );
+
+            Assert.assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+            Assert.assertEquals( expected, result.get() );
+        } finally
+        {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        Assume.assumeTrue( Boolean.getBoolean( "bungee.benchmark" ) );
+        EncryptionRequest[] requests = new EncryptionRequest[ HANDSHAKES ];
+        EncryptionResponse[] responses = new EncryptionResponse[ HANDSHAKES ];
+        for ( int i = 0; i < HANDSHAKES; i++ )
+        {
+            requests[i] = EncryptionUtil.encryptRequest();
+            responses[i] = respond( requests[i], EncryptionUtil.getSecret() );
+        }
+
+        System.out.println( "Benchmarking handshakes decrypted on the event loop..." );
+        benchmark( requests, responses, false );
+        System.out.println( "Benchmarking handshakes decrypted on the crypto pool..." );
+        benchmark( requests, responses, true );
+    }
+
+    private static void benchmark(final EncryptionRequest[] requests, final EncryptionResponse[] responses, final boolean async) throws Exception
+    {
+        EventLoopGroup group = new NioEventLoopGroup( 1 );
+        final CountDownLatch done = new CountDownLatch( HANDSHAKES );
+        final AtomicLong maxStall = new AtomicLong();
+
+        try
+        {
+            final EventLoop loop = group.next();
+
+            // Stands in for the other channels on the loop, measuring how late it gets to run
+            final long probeStart = System.nanoTime();
+            loop.scheduleAtFixedRate( new Runnable()
+            {
+                private long expected = probeStart;
+
+                @Override
+                public void run()
+                {
+                    long now = System.nanoTime();
+                    maxStall.set( Math.max( maxStall.get(), now - expected ) );
+                    expected = now + TimeUnit.MILLISECONDS.toNanos( 1 );
+                }
+            }, 1, 1, TimeUnit.MILLISECONDS );
+
+            final Callback<SecretKey> callback = new Callback<SecretKey>()
+            {
+                @Override
+                public void done(SecretKey result, Throwable error)
+                {
+                    done.countDown();
+                }
+            };
+
+            long start = System.nanoTime();
+            for ( int i = 0; i < HANDSHAKES; i++ )
+            {
+                final int index = i;
+                loop.execute( new Runnable()
+                {
+                    @Override
+                    public void run()
+                    {
+                        if ( async )
+                        {
+                            EncryptionUtil.getSecret( responses[index], requests[index], loop, callback );
+                        } else
+                        {
+                            try
+                            {
+                                callback.done( EncryptionUtil.getSecret( responses[index], requests[index] ), null );
+                            } catch ( Exception ex )
+                            {
+                                callback.done( null, ex );
+                            }
+                        }
+                    }
+                } );
+            }
+            Assert.assertTrue( "Handshakes timed out", done.await( 2, TimeUnit.MINUTES ) );
+            long elapsed = System.nanoTime() - start;
+
+            System.out.println( String.format( "Handshakes: %d, Elapsed: %d ms, %.0f handshakes/s, max loop stall: %d ms",
+                    HANDSHAKES, elapsed / 1000000, HANDSHAKES / ( elapsed / 1e9 ), maxStall.get() / 1000000 ) );
+        } finally
+        {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+        if ( async )
+        {
+            System.out.println( String.format( "Mean queue time: %d us, mean RSA time: %d us",
+                    EncryptionUtil.getAverageQueueTime() / 1000, EncryptionUtil.getAverageRsaTime() / 1000 ) );
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package net.md_5.bungee;
+
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import net.md_5.bungee.api.Callback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class LoginAdmissionTest
+{
+
+    private static final int LOGINS = 2000;
+    // Session server slows down sharply once more requests than it can handle are in flight
+    private static final long SESSION_LATENCY = 50;
+    private static final double SESSION_CAPACITY = 64;
+    private static final long SESSION_TIMEOUT = 5000;
+    //
+    private final ScheduledExecutorService executor = Executors.newScheduledThreadPool( 4 );
+
+    @After
+    public void shutdown()
+    {
+        executor.shutdownNow();
+    }
+
+    private static InetAddress address(int i) throws Exception
+    {
+        return InetAddress.getByAddress( new byte[]
+        {
+            10, (byte) ( i >> 8 ), (byte) i, 1
+        } );
+    }
+
+    private static Callback<LoginAdmission.Ticket> latch(final CountDownLatch latch, final AtomicReference<Throwable> error)
+    {
+        return new Callback<LoginAdmission.Ticket>()
+        {
+            @Override
+            public void done(LoginAdmission.Ticket result, Throwable t)
+            {
+                error.set( t );
+                latch.countDown();
+            }
+        };
+    }
+
+    @Test
+    public void testThrottle() throws Exception
+    {
+        LoginAdmission admission = new LoginAdmission( 10, 10, 1000, 2, 3 );
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch( 10 );
+
+        Assert.assertEquals( LoginAdmission.Result.ADMITTED, admission.request( address( 1 ), executor, latch( latch, error ) ).getResult() );
+        Assert.assertEquals( LoginAdmission.Result.ADMITTED, admission.request( address( 1 ), executor, latch( latch, error ) ).getResult() );
+        Assert.assertEquals( "Address should be throttled", LoginAdmission.Result.THROTTLED, admission.request( address( 1 ), executor, latch( latch, error ) ).getResult() );
+
+        // Same /24 as above
+        Assert.assertEquals( LoginAdmission.Result.ADMITTED, admission.request( InetAddress.getByName( "10.0.1.2" ), executor, latch( latch, error ) ).getResult() );
+        Assert.assertEquals( "Subnet should be throttled", LoginAdmission.Result.THROTTLED, admission.request( InetAddress.getByName( "10.0.1.3" ), executor, latch( latch, error ) ).getResult() );
+    }
+
+    @Test
+    public void testDisabledRates() throws Exception
+    {
+        LoginAdmission admission = new LoginAdmission( 100, 0, 1000, 0, 0 );
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        for ( int i = 0; i < 50; i++ )
+        {
+            Assert.assertEquals( LoginAdmission.Result.ADMITTED, admission.request( address( 1 ), executor, latch( new CountDownLatch( 1 ), error ) ).getResult() );
+        }
+    }
+
+    @Test
+    public void testAdmitOnExecutor() throws Exception
+    {
+        LoginAdmission admission = new LoginAdmission( 1, 0, 1000, 100, 100 );
+        final Thread caller = Thread.currentThread();
+        final AtomicReference<Thread> calledOn = new AtomicReference<>();
+        final CountDownLatch latch = new CountDownLatch( 1 );
+
+        admission.request( address( 1 ), executor, new Callback<LoginAdmission.Ticket>()
+        {
+            @Override
+            public void done(LoginAdmission.Ticket result, Throwable error)
+            {
+                calledOn.set( Thread.currentThread() );
+                latch.countDown();
+            }
+        } );
+        Assert.assertTrue( latch.await( 1, TimeUnit.SECONDS ) );
+        Assert.assertNotSame( "Admission should not call back within request", caller, calledOn.get() );
+    }
+
+    @Test
+    public void testQueue() throws Exception
+    {
+        LoginAdmission admission = new LoginAdmission( 1, 2, 10000, 100, 100 );
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch first = new CountDownLatch( 1 );
+        CountDownLatch second = new CountDownLatch( 1 );
+
+        LoginAdmission.Ticket active = admission.request( address( 1 ), executor, latch( first, error ) );
+        LoginAdmission.Ticket queued = admission.request( address( 2 ), executor, latch( second, error ) );
+        LoginAdmission.Ticket behind = admission.request( address( 3 ), executor, latch( new CountDownLatch( 1 ), error ) );
+
+        Assert.assertEquals( LoginAdmission.Result.ADMITTED, active.getResult() );
+        Assert.assertEquals( LoginAdmission.Result.QUEUED, queued.getResult() );
+        Assert.assertEquals( 1, queued.getPosition() );
+        Assert.assertEquals( 2, behind.getPosition() );
+        Assert.assertEquals( LoginAdmission.Result.FULL, admission.request( address( 4 ), executor, latch( new CountDownLatch( 1 ), error ) ).getResult() );
+
+        active.release();
+        Assert.assertTrue( second.await( 1, TimeUnit.SECONDS ) );
+        Assert.assertNull( error.get() );
+        Assert.assertEquals( 1, behind.getPosition() );
+        Assert.assertEquals( 1, admission.getActive() );
+
+        // Leaving the queue frees its place
+        behind.release();
+        Assert.assertEquals( 0, admission.getQueueLength() );
+    }
+
+    @Test
+    public void testQueueTimeout() throws Exception
+    {
+        LoginAdmission admission = new LoginAdmission( 1, 10, 50, 100, 100 );
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        CountDownLatch latch = new CountDownLatch( 1 );
+
+        admission.request( address( 1 ), executor, latch( new CountDownLatch( 1 ), error ) );
+        LoginAdmission.Ticket queued = admission.request( address( 2 ), executor, latch( latch, error ) );
+
+        Assert.assertTrue( latch.await( 1, TimeUnit.SECONDS ) );
+        Assert.assertTrue( error.get() instanceof TimeoutException );
+        Assert.assertEquals( 1, queued.getPosition() );
+        Assert.assertEquals( 0, admission.getQueueLength() );
+    }
+
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        System.out.println( "Simulating login storm without admission control..." );
+        simulate( new LoginAdmission( Integer.MAX_VALUE, 0, 30000, 1000, 1000 ) );
+        System.out.println( "Simulating login storm with 64 concurrent logins..." );
+        simulate( new LoginAdmission( 64, LOGINS, 30000, 1000, 1000 ) );
+    }
+
+    private void simulate(LoginAdmission admission) throws Exception
+    {
+        final CountDownLatch done = new CountDownLatch( LOGINS );
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger timedOut = new AtomicInteger();
+        final List<Long> latencies = Collections.synchronizedList( new ArrayList<Long>() );
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < LOGINS; i++ )
+        {
+            final long arrived = System.nanoTime();
+            admission.request( address( i ), executor, new Callback<LoginAdmission.Ticket>()
+            {
+                @Override
+                public void done(final LoginAdmission.Ticket ticket, Throwable error)
+                {
+                    if ( error != null )
+                    {
+                        timedOut.incrementAndGet();
+                        done.countDown();
+                        return;
+                    }
+
+                    double load = inFlight.incrementAndGet() / SESSION_CAPACITY;
+                    long latency = (long) ( SESSION_LATENCY * ( 1 + load * load ) );
+                    executor.schedule( new Runnable()
+                    {
+                        @Override
+                        public void run()
+                        {
+                            inFlight.decrementAndGet();
+                            ticket.release();
+                            long elapsed = TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - arrived );
+                            latencies.add( elapsed );
+                            if ( elapsed > SESSION_TIMEOUT )
+                            {
+                                timedOut.incrementAndGet();
+                            }
+                            done.countDown();
+                        }
+                    }, Math.min( latency, SESSION_TIMEOUT + 1 ), TimeUnit.MILLISECONDS );
+                }
+            } );
+        }
+        Assert.assertTrue( "Simulation timed out", done.await( 2, TimeUnit.MINUTES ) );
+        long elapsed = System.nanoTime() - start;
+
+        Collections.sort( latencies );
+        System.out.println( String.format( "Logins: %d, Elapsed: %d ms, timed out: %d, p50: %d ms, p99: %d ms", LOGINS, elapsed / 1000000, timedOut.get(),
+                latencies.get( latencies.size() / 2 ), latencies.get( latencies.size() * 99 / 100 ) ) );
+    }
+}
@@ -0,0 +1,254 @@
+package net.md_5.bungee;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import net.md_5.bungee.api.connection.ProxiedPlayer;
+import net.md_5.bungee.util.CaseInsensitiveMap;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class PlayerRegistryTest
+{
+
+    private static final int PLAYERS = 10000;
+    private static final int BENCHMARK_COUNT = 1000000;
+
+    static ProxiedPlayer player(final String name, final UUID uniqueId)
+    {
+        return (ProxiedPlayer) Proxy.newProxyInstance( ProxiedPlayer.class.getClassLoader(), new Class<?>[]
+        {
+            ProxiedPlayer.class
+        }, new InvocationHandler()
+        {
+            @Override
+            public Object invoke(Object proxy, Method method, Object[] args) throws Throwable
+            {
+                switch ( method.getName() )
+                {
+                    case "getName":
+                        return name;
+                    case "getUniqueId":
+                        return uniqueId;
+                    case "hashCode":
+                        return System.identityHashCode( proxy );
+                    case "equals":
+                        return proxy == args[0];
+                    case "toString":
+                        return name;
+                    default:
+                        throw new UnsupportedOperationException( method.getName() );
+                }
+            }
+        } );
+    }
+
+    @Test
+    public void testIndexes()
+    {
+        PlayerRegistry registry = new PlayerRegistry();
+        UUID offlineId = UUID.randomUUID();
+        ProxiedPlayer player = player( "md_5", UUID.randomUUID() );
+
+        registry.add( player, offlineId );
+        Assert.assertSame( player, registry.get( "MD_5" ) );
+        Assert.assertSame( player, registry.get( player.getUniqueId() ) );
+        Assert.assertSame( player, registry.getByOfflineId( offlineId ) );
+        Assert.assertEquals( Collections.singleton( player ), new HashSet<>( registry.getPlayers() ) );
+
+        // Reconnecting under the same name replaces the old player, which must not remove the new one
+        ProxiedPlayer replacement = player( "md_5", player.getUniqueId() );
+        registry.add( replacement, offlineId );
+        Assert.assertFalse( registry.remove( player, offlineId ) );
+        Assert.assertSame( replacement, registry.get( player.getUniqueId() ) );
+
+        Assert.assertTrue( registry.remove( replacement, offlineId ) );
+        Assert.assertNull( registry.get( "md_5" ) );
+        Assert.assertNull( registry.get( player.getUniqueId() ) );
+        Assert.assertNull( registry.getByOfflineId( offlineId ) );
+        Assert.assertTrue( registry.getPlayers().isEmpty() );
+    }
+
+    @Test
+    public void testSnapshot()
+    {
+        PlayerRegistry registry = new PlayerRegistry();
+        registry.add( player( "a", UUID.randomUUID() ), UUID.randomUUID() );
+
+        Collection<ProxiedPlayer> first = registry.getPlayers();
+        Assert.assertSame( "Snapshot should be reused until players change", first, registry.getPlayers() );
+
+        registry.add( player( "b", UUID.randomUUID() ), UUID.randomUUID() );
+        Assert.assertEquals( 1, first.size() );
+        Assert.assertEquals( 2, registry.getPlayers().size() );
+    }
+
+    @Test
+    public void testMatch()
+    {
+        PlayerRegistry registry = new PlayerRegistry();
+        ProxiedPlayer md5 = player( "md_5", UUID.randomUUID() );
+        ProxiedPlayer mdx = player( "MDX", UUID.randomUUID() );
+        ProxiedPlayer notch = player( "Notch", UUID.randomUUID() );
+        registry.add( notch, UUID.randomUUID() );
+        registry.add( mdx, UUID.randomUUID() );
+        registry.add( md5, UUID.randomUUID() );
+
+        Assert.assertEquals( Arrays.asList( md5, mdx ), registry.matchPrefix( "Md", 10 ) );
+        Assert.assertEquals( Collections.singletonList( md5 ), registry.matchPrefix( "md", 1 ) );
+        Assert.assertEquals( Arrays.asList( md5, mdx, notch ), registry.matchPrefix( "", 10 ) );
+        Assert.assertTrue( registry.matchPrefix( "x", 10 ).isEmpty() );
+        Assert.assertEquals( Arrays.asList( md5, mdx ), registry.matchSubstring( "d", 10 ) );
+        Assert.assertEquals( Collections.singletonList( notch ), registry.matchSubstring( "TCH", 10 ) );
+
+        // A reconnect replaces the indexed player rather than adding a second entry
+        ProxiedPlayer replacement = player( "MD_5", md5.getUniqueId() );
+        registry.add( replacement, UUID.randomUUID() );
+        Assert.assertEquals( Arrays.asList( replacement, mdx ), registry.matchPrefix( "md", 10 ) );
+
+        registry.remove( mdx, UUID.randomUUID() );
+        Assert.assertEquals( Collections.singletonList( replacement ), registry.matchPrefix( "md", 10 ) );
+        Assert.assertFalse( registry.remove( md5, UUID.randomUUID() ) );
+        Assert.assertEquals( Collections.singletonList( replacement ), registry.matchPrefix( "md", 10 ) );
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        Assume.assumeTrue( Boolean.getBoolean( "bungee.benchmark" ) );
+        PlayerRegistry registry = new PlayerRegistry();
+        LegacyRegistry legacy = new LegacyRegistry();
+        List<ProxiedPlayer> players = new ArrayList<>();
+        for ( int i = 0; i < PLAYERS; i++ )
+        {
+            ProxiedPlayer player = player( "Player" + i, UUID.randomUUID() );
+            players.add( player );
+            registry.add( player, UUID.randomUUID() );
+            legacy.add( player );
+        }
+
+        System.out.println( "Benchmarking locked registry with " + PLAYERS + " players..." );
+        long start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT / 100; i++ )
+        {
+            Assert.assertNotNull( legacy.get( players.get( i % PLAYERS ).getUniqueId() ) );
+        }
+        report( "UUID lookups", BENCHMARK_COUNT / 100, System.nanoTime() - start );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT / 100; i++ )
+        {
+            legacy.getPlayers().size();
+        }
+        report( "Player snapshots", BENCHMARK_COUNT / 100, System.nanoTime() - start );
+
+        System.out.println( "Benchmarking concurrent registry with " + PLAYERS + " players..." );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            Assert.assertNotNull( registry.get( players.get( i % PLAYERS ).getUniqueId() ) );
+        }
+        report( "UUID lookups", BENCHMARK_COUNT, System.nanoTime() - start );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            registry.getPlayers().size();
+        }
+        report( "Player snapshots", BENCHMARK_COUNT, System.nanoTime() - start );
+
+        System.out.println( "Benchmarking tab completion with " + PLAYERS + " players..." );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT / 100; i++ )
+        {
+            Assert.assertFalse( legacy.matchPrefix( "player" + ( i % PLAYERS ) ).isEmpty() );
+        }
+        report( "Linear prefix scans", BENCHMARK_COUNT / 100, System.nanoTime() - start );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            Assert.assertFalse( registry.matchPrefix( "player" + ( i % PLAYERS ), 100 ).isEmpty() );
+        }
+        report( "Indexed prefix lookups", BENCHMARK_COUNT, System.nanoTime() - start );
+    }
+
+    private static void report(String operation, int count, long elapsed)
+    {
+        System.out.println( String.format( "%s: %d, Elapsed: %d ms, %.0f ops/s", operation, count, elapsed / 1000000, count / ( elapsed / 1e9 ) ) );
+    }
+
+    /**
+     * The previous implementation, kept as a baseline for the benchmark.
+     */
+    private static class LegacyRegistry
+    {
+
+        private final Map<String, ProxiedPlayer> connections = new CaseInsensitiveMap<>();
+        private final ReadWriteLock connectionLock = new ReentrantReadWriteLock();
+
+        private void add(ProxiedPlayer player)
+        {
+            connectionLock.writeLock().lock();
+            try
+            {
+                connections.put( player.getName(), player );
+            } finally
+            {
+                connectionLock.writeLock().unlock();
+            }
+        }
+
+        private Collection<ProxiedPlayer> getPlayers()
+        {
+            connectionLock.readLock().lock();
+            try
+            {
+                return Collections.unmodifiableCollection( new HashSet<>( connections.values() ) );
+            } finally
+            {
+                connectionLock.readLock().unlock();
+            }
+        }
+
+        private List<ProxiedPlayer> matchPrefix(String prefix)
+        {
+            List<ProxiedPlayer> matches = new ArrayList<>();
+            for ( ProxiedPlayer player : getPlayers() )
+            {
+                if ( player.getName().toLowerCase().startsWith( prefix ) )
+                {
+                    matches.add( player );
+                }
+            }
+            return matches;
+        }
+
+        private ProxiedPlayer get(UUID uuid)
+        {
+            connectionLock.readLock().lock();
+            try
+            {
+                for ( ProxiedPlayer proxiedPlayer : connections.values() )
+                {
+                    if ( proxiedPlayer.getUniqueId().equals( uuid ) )
+                    {
+                        return proxiedPlayer;
+                    }
+                }
+                return null;
+            } finally
+            {
+                connectionLock.readLock().unlock();
+            }
+        }
+    }
+}
@@ -2,12 +2,26 @@ package net.md_5.bungee;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
 import org.junit.Assert;
 import org.junit.Test;
 
 public class ThrottleTest
 {
 
+    private static final int ADDRESSES = 5000000;
+
+    private static InetAddress address(int i) throws UnknownHostException
+    {
+        return InetAddress.getByAddress( new byte[]
+        {
+            (byte) ( i >> 24 ), (byte) ( i >> 16 ), (byte) ( i >> 8 ), (byte) i
+        } );
+    }
+
     @Test
     public void testThrottle() throws InterruptedException, UnknownHostException
     {
@@ -30,5 +44,90 @@ public class ThrottleTest
 
         Thread.sleep( 15 );
         Assert.assertFalse( "Address should not be throttled", throttle.throttle( address ) );
+        Assert.assertEquals( 1, throttle.getHits() );
+    }
+
+    @Test
+    public void testExpiry() throws Exception
+    {
+        ConnectionThrottle throttle = new ConnectionThrottle( 5 );
+        for ( int i = 0; i < 1000; i++ )
+        {
+            throttle.throttle( address( i ) );
+        }
+        Assert.assertEquals( 1000, throttle.size() );
+
+        Thread.sleep( 15 );
+        throttle.cleanup();
+        Assert.assertEquals( 0, throttle.size() );
+        Assert.assertEquals( 1000, throttle.getEvictions() );
+    }
+
+    @Test
+    public void testConcurrent() throws Exception
+    {
+        final ConnectionThrottle throttle = new ConnectionThrottle( 4000, 100000 );
+        final AtomicReference<Throwable> failure = new AtomicReference<>();
+        List<Thread> threads = new ArrayList<>();
+
+        for ( int t = 0; t < Runtime.getRuntime().availableProcessors() * 2; t++ )
+        {
+            final int seed = t;
+            Thread thread = new Thread()
+            {
+                @Override
+                public void run()
+                {
+                    try
+                    {
+                        Random random = new Random( seed );
+                        for ( int i = 0; i < 200000; i++ )
+                        {
+                            InetAddress address = address( random.nextInt( 500000 ) );
+                            throttle.throttle( address );
+                            if ( i % 4 == 0 )
+                            {
+                                throttle.unthrottle( address );
+                            }
+                        }
+                    } catch ( Throwable ex )
+                    {
+                        failure.set( ex );
+                    }
+                }
+            };
+            thread.start();
+            threads.add( thread );
+        }
+        for ( Thread thread : threads )
+        {
+            thread.join();
+        }
+
+        Assert.assertNull( failure.get() );
+        Assert.assertTrue( "Throttle grew past its cap: " + throttle.size(), throttle.size() <= 100000 );
+    }
+
+    @Test
+    public void testMemory() throws Exception
+    {
+        ConnectionThrottle throttle = new ConnectionThrottle( 4000, 1 << 20 );
+        Runtime runtime = Runtime.getRuntime();
+        System.gc();
+        long before = runtime.totalMemory() - runtime.freeMemory();
+
+        long start = System.nanoTime();
+        for ( int i = 0; i < ADDRESSES; i++ )
+        {
+            throttle.throttle( address( i ) );
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.gc();
+        long used = runtime.totalMemory() - runtime.freeMemory() - before;
+        Assert.assertTrue( "Throttle grew past its cap: " + throttle.size(), throttle.size() <= 1 << 20 );
+
+        System.out.println( String.format( "Addresses: %d, Retained: %d, Evicted: %d, Elapsed: %d ms, Memory: %.1f MB",
+                ADDRESSES, throttle.size(), throttle.getEvictions(), elapsed / 1000000, used / ( 1024.0 * 1024.0 ) ) );
     }
 }
@@ -0,0 +1,224 @@
+package net.md_5.bungee.compress;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import net.md_5.bungee.connection.DownstreamBridge;
+import net.md_5.bungee.entitymap.EntityMap;
+import net.md_5.bungee.netty.ChannelWrapper;
+import net.md_5.bungee.netty.PipelineUtils;
+import net.md_5.bungee.protocol.DefinedPacket;
+import net.md_5.bungee.protocol.PacketWrapper;
+import net.md_5.bungee.protocol.Protocol;
+import net.md_5.bungee.protocol.ProtocolConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PassthroughTest
+{
+
+    private static final int THRESHOLD = 256;
+    private static final int UNHANDLED_ID = 0x26; // Map Chunk Bulk
+
+    private static ByteBuf packet(int id, int length)
+    {
+        ByteBuf buf = Unpooled.buffer();
+        DefinedPacket.writeVarInt( id, buf );
+        Random random = new Random( id );
+        for ( int i = 0; i < length; i++ )
+        {
+            // Few distinct values so the packet actually compresses
+            buf.writeByte( random.nextInt( 4 ) );
+        }
+        return buf;
+    }
+
+    // Compressed independently of the proxy's own zlib
+    private static ByteBuf compress(ByteBuf packet)
+    {
+        byte[] data = new byte[ packet.readableBytes() ];
+        packet.getBytes( packet.readerIndex(), data );
+        Deflater deflater = new Deflater();
+        deflater.setInput( data );
+        deflater.finish();
+        byte[] compressed = new byte[ data.length + 64 ];
+        int length = deflater.deflate( compressed );
+        deflater.end();
+
+        ByteBuf frame = Unpooled.buffer();
+        DefinedPacket.writeVarInt( data.length, frame );
+        frame.writeBytes( compressed, 0, length );
+        return frame;
+    }
+
+    private static ByteBuf decompress(ByteBuf frame) throws Exception
+    {
+        int size = DefinedPacket.readVarInt( frame );
+        if ( size == 0 )
+        {
+            return frame;
+        }
+        byte[] data = new byte[ frame.readableBytes() ];
+        frame.readBytes( data );
+        Inflater inflater = new Inflater();
+        inflater.setInput( data );
+        byte[] out = new byte[ size ];
+        Assert.assertEquals( size, inflater.inflate( out ) );
+        inflater.end();
+        return Unpooled.wrappedBuffer( out );
+    }
+
+    private static boolean[] allIds()
+    {
+        boolean[] ids = new boolean[ Protocol.MAX_PACKET_ID ];
+        Arrays.fill( ids, true );
+        return ids;
+    }
+
+    /**
+     * Creates a channel with placeholder codecs for the compression handlers
+     * to be added around.
+     */
+    private static EmbeddedChannel channel()
+    {
+        EmbeddedChannel channel = new EmbeddedChannel( new ChannelInboundHandlerAdapter() );
+        // Ahead of the handler the embedded channel collects inbound messages with
+        channel.pipeline().addFirst( PipelineUtils.PACKET_ENCODER, new ChannelOutboundHandlerAdapter() );
+        channel.pipeline().addFirst( PipelineUtils.PACKET_DECODER, new ChannelInboundHandlerAdapter() );
+        return channel;
+    }
+
+    private static ChannelWrapper wrap(EmbeddedChannel channel, int threshold)
+    {
+        ChannelWrapper wrapper = new ChannelWrapper( channel.pipeline().firstContext() );
+        wrapper.setCompressionThreshold( threshold );
+        return wrapper;
+    }
+
+    @Test
+    public void testPeekPacketId()
+    {
+        EmbeddedChannel server = channel();
+        wrap( server, THRESHOLD );
+        boolean[] ids = new boolean[ Protocol.MAX_PACKET_ID ];
+        ids[UNHANDLED_ID] = true;
+        ids[0xC8] = true;
+        server.pipeline().get( PacketDecompressor.class ).setPassthrough( ids );
+
+        // Single and two byte packet ids are both read from the inflated prefix
+        for ( int id : new int[]
+        {
+            UNHANDLED_ID, 0xC8
+        } )
+        {
+            ByteBuf frame = compress( packet( id, 1000 ) );
+            server.writeInbound( frame.copy() );
+            PacketWrapper wrapper = (PacketWrapper) server.readInbound();
+            Assert.assertTrue( "Frame should be passed on compressed", wrapper.compressed );
+            Assert.assertNull( wrapper.packet );
+            Assert.assertEquals( frame, wrapper.buf );
+            wrapper.trySingleRelease();
+        }
+
+        ByteBuf packet = packet( UNHANDLED_ID + 1, 1000 );
+        server.writeInbound( compress( packet ) );
+        ByteBuf decompressed = (ByteBuf) server.readInbound();
+        Assert.assertEquals( "Other packets should be decompressed", packet, decompressed );
+        decompressed.release();
+    }
+
+    @Test
+    public void testPassthroughIdentical()
+    {
+        EmbeddedChannel server = channel();
+        EmbeddedChannel client = channel();
+        ChannelWrapper serverCh = wrap( server, THRESHOLD );
+        ChannelWrapper clientCh = wrap( client, THRESHOLD );
+        serverCh.setCompressionPassthrough( clientCh, allIds() );
+
+        ByteBuf frame = compress( packet( UNHANDLED_ID, 1000 ) );
+        server.writeInbound( frame.copy() );
+        clientCh.write( server.readInbound() );
+
+        ByteBuf sent = (ByteBuf) client.readOutbound();
+        Assert.assertEquals( "Client should receive the frame byte for byte", frame, sent );
+        Assert.assertNull( "Frame must skip the compressor", client.readOutbound() );
+        sent.release();
+    }
+
+    @Test
+    public void testThresholdMismatch() throws Exception
+    {
+        EmbeddedChannel server = channel();
+        EmbeddedChannel client = channel();
+        ChannelWrapper serverCh = wrap( server, THRESHOLD );
+        ChannelWrapper clientCh = wrap( client, THRESHOLD * 4 );
+        serverCh.setCompressionPassthrough( clientCh, allIds() );
+
+        ByteBuf packet = packet( UNHANDLED_ID, 500 );
+        server.writeInbound( compress( packet ) );
+        Object decompressed = server.readInbound();
+        Assert.assertTrue( "Mismatched thresholds should decompress", decompressed instanceof ByteBuf );
+
+        // Recompressed for the client, which is below its threshold here
+        clientCh.write( new PacketWrapper( null, (ByteBuf) decompressed ) );
+        ByteBuf sent = (ByteBuf) client.readOutbound();
+        Assert.assertEquals( 0, DefinedPacket.readVarInt( sent.duplicate() ) );
+        Assert.assertEquals( packet, decompress( sent ) );
+        sent.release();
+
+        // And compressed again once above it
+        clientCh.setCompressionThreshold( 64 );
+        serverCh.setCompressionPassthrough( clientCh, allIds() );
+        server.writeInbound( compress( packet ) );
+        clientCh.write( new PacketWrapper( null, (ByteBuf) server.readInbound() ) );
+        sent = (ByteBuf) client.readOutbound();
+        Assert.assertEquals( packet.readableBytes(), DefinedPacket.readVarInt( sent.duplicate() ) );
+        Assert.assertEquals( packet, decompress( sent ) );
+        sent.release();
+    }
+
+    @Test
+    public void testRewrittenNeverPassthrough()
+    {
+        for ( int version : new int[]
+        {
+            ProtocolConstants.MINECRAFT_1_7_2, ProtocolConstants.MINECRAFT_1_7_6, ProtocolConstants.MINECRAFT_SNAPSHOT
+        } )
+        {
+            EntityMap rewrite = EntityMap.getEntityMap( version );
+            boolean[] ids = DownstreamBridge.getPassthroughIds( rewrite );
+            for ( int id = 0; id < ids.length; id++ )
+            {
+                if ( rewrite.hasRewrite( id, ProtocolConstants.Direction.TO_CLIENT ) || Protocol.GAME.TO_CLIENT.hasPacket( id ) )
+                {
+                    Assert.assertFalse( "Packet " + id + " must not be passed through", ids[id] );
+                }
+            }
+            Assert.assertTrue( ids[UNHANDLED_ID] );
+        }
+
+        boolean[] ids = DownstreamBridge.getPassthroughIds( EntityMap.getEntityMap( ProtocolConstants.MINECRAFT_SNAPSHOT ) );
+        Assert.assertFalse( ids[0x15] ); // Entity Relative Move
+        Assert.assertFalse( ids[0x13] ); // Destroy Entities
+        Assert.assertFalse( ids[0x0C] ); // Spawn Player
+        Assert.assertFalse( ids[0x02] ); // Chat
+
+        EmbeddedChannel server = channel();
+        EmbeddedChannel client = channel();
+        ChannelWrapper serverCh = wrap( server, THRESHOLD );
+        serverCh.setCompressionPassthrough( wrap( client, THRESHOLD ), ids );
+
+        ByteBuf packet = packet( 0x15, 1000 );
+        server.writeInbound( compress( packet ) );
+        ByteBuf decompressed = (ByteBuf) server.readInbound();
+        Assert.assertEquals( "Entity packets must be decompressed for rewriting", packet, decompressed );
+        decompressed.release();
+    }
+}
@@ -0,0 +1,193 @@
+package net.md_5.bungee.entitymap;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import java.util.Random;
+import net.md_5.bungee.protocol.DefinedPacket;
+import net.md_5.bungee.protocol.ProtocolConstants;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EntityMapTest
+{
+
+    private static final int BENCHMARK_COUNT = 20000000;
+
+    private static ByteBuf packet(int id, int... varInts)
+    {
+        ByteBuf buf = Unpooled.buffer();
+        DefinedPacket.writeVarInt( id, buf );
+        for ( int i : varInts )
+        {
+            DefinedPacket.writeVarInt( i, buf );
+        }
+        return buf;
+    }
+
+    private static void assertPacket(ByteBuf expected, ByteBuf actual)
+    {
+        Assert.assertEquals( "Reader index should be restored", 0, actual.readerIndex() );
+        Assert.assertEquals( "Packets differ", expected, actual );
+        expected.release();
+        actual.release();
+    }
+
+    @Test
+    public void testSameWidthInPlace()
+    {
+        EntityMap map = EntityMap.getEntityMap( ProtocolConstants.MINECRAFT_SNAPSHOT );
+        ByteBuf in = packet( 0x15 /* Entity Relative Move */, 5, 1, 2, 3 );
+
+        ByteBuf out = map.rewriteClientbound( in, 5, 7 );
+        Assert.assertSame( "Equal width rewrites should not replace the buffer", in, out );
+        assertPacket( packet( 0x15, 7, 1, 2, 3 ), out );
+    }
+
+    @Test
+    public void testWidthChange()
+    {
+        EntityMap map = EntityMap.getEntityMap( ProtocolConstants.MINECRAFT_SNAPSHOT );
+
+        assertPacket( packet( 0x15, 300, 1, 2, 3 ), map.rewriteClientbound( packet( 0x15, 5, 1, 2, 3 ), 5, 300 ) );
+        assertPacket( packet( 0x15, 5, 1, 2, 3 ), map.rewriteClientbound( packet( 0x15, 300, 1, 2, 3 ), 5, 300 ) );
+    }
+
+    @Test
+    public void testDestroyEntities()
+    {
+        EntityMap map = EntityMap.getEntityMap( ProtocolConstants.MINECRAFT_SNAPSHOT );
+
+        assertPacket( packet( 0x13, 4, 1, 300, 9, 5 ), map.rewriteClientbound( packet( 0x13, 4, 1, 5, 9, 300 ), 5, 300 ) );
+    }
+
+    @Test
+    public void testUntouched()
+    {
+        EntityMap map = EntityMap.getEntityMap( ProtocolConstants.MINECRAFT_SNAPSHOT );
+
+        assertPacket( packet( 0x26 /* Map Chunk Bulk */, 5, 300 ), map.rewriteClientbound( packet( 0x26, 5, 300 ), 5, 300 ) );
+    }
+
+    @Test
+    public void testBenchmark()
+    {
+        // Entity movement dominates game traffic, the rest is mostly packets with no entity id
+        int[] ids =
+        {
+            0x15, 0x16, 0x17, 0x18, 0x19, 0x12, 0x1C, 0x03, 0x21, 0x22, 0x26, 0x2F, 0x13, 0x0E, 0x1B, 0x42
+        };
+        ByteBuf[] packets = new ByteBuf[ 1024 ];
+        Random random = new Random( 0 );
+        for ( int i = 0; i < packets.length; i++ )
+        {
+            // Ids which are never rewritten, so the packets can be reused
+            packets[i] = packet( ids[random.nextInt( ids.length )], 1, 20, 4, 9, 1, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0 );
+        }
+
+        System.out.println( "Benchmarking switch dispatch..." );
+        SwitchEntityMap legacy = new SwitchEntityMap();
+        long start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            legacy.rewriteClientbound( packets[i & ( packets.length - 1 )], 5, 7 );
+        }
+        System.out.println( String.format( "Packets: %d, Elapsed: %d ms", BENCHMARK_COUNT, ( System.nanoTime() - start ) / 1000000 ) );
+
+        System.out.println( "Benchmarking table dispatch..." );
+        EntityMap map = EntityMap.getEntityMap( ProtocolConstants.MINECRAFT_SNAPSHOT );
+        start = System.nanoTime();
+        for ( int i = 0; i < BENCHMARK_COUNT; i++ )
+        {
+            map.rewriteClientbound( packets[i & ( packets.length - 1 )], 5, 7 );
+        }
+        System.out.println( String.format( "Packets: %d, Elapsed: %d ms", BENCHMARK_COUNT, ( System.nanoTime() - start ) / 1000000 ) );
+
+        for ( ByteBuf packet : packets )
+        {
+            Assert.assertEquals( "Packets should not be rewritten", 0, packet.readerIndex() );
+            packet.release();
+        }
+    }
+
+    /**
+     * The previous implementation, kept as a baseline for the benchmark. Flag
+     * tables for the simple packets followed by a chain of checks for the
+     * special cases. Spawn Player is left out as it needs a running proxy.
+     */
+    private static class SwitchEntityMap
+    {
+
+        private final boolean[] clientboundInts = new boolean[ 256 ];
+        private final boolean[] clientboundVarInts = new boolean[ 256 ];
+
+        SwitchEntityMap()
+        {
+            for ( int id : new int[]
+            {
+                0x04, 0x0A, 0x0B, 0x0C, 0x0D, 0x0E, 0x0F, 0x10, 0x11, 0x12, 0x14, 0x15, 0x16, 0x17, 0x18, 0x19, 0x1C, 0x1D, 0x1E, 0x20, 0x25, 0x2C, 0x43, 0x49
+            } )
+            {
+                clientboundVarInts[ id ] = true;
+            }
+            clientboundInts[ 0x1A ] = true;
+            clientboundInts[ 0x1B ] = true;
+        }
+
+        public ByteBuf rewriteClientbound(ByteBuf packet, int oldId, int newId)
+        {
+            int readerIndex = packet.readerIndex();
+            int packetId = DefinedPacket.readVarInt( packet );
+            int packetIdLength = packet.readerIndex() - readerIndex;
+
+            if ( clientboundInts[ packetId ] )
+            {
+                EntityMap.rewriteInt( packet, oldId, newId, readerIndex + packetIdLength );
+            } else if ( clientboundVarInts[ packetId ] )
+            {
+                packet = EntityMap.rewriteVarInt( packet, oldId, newId, readerIndex + packetIdLength );
+            }
+            packet.readerIndex( readerIndex );
+
+            //Special cases
+            packetId = DefinedPacket.readVarInt( packet );
+            if ( packetId == 0x0D /* Collect Item */ )
+            {
+                DefinedPacket.readVarInt( packet );
+                packet = EntityMap.rewriteVarInt( packet, oldId, newId, packet.readerIndex() );
+            } else if ( packetId == 0x1B /* Attach Entity */ )
+            {
+                EntityMap.rewriteInt( packet, oldId, newId, readerIndex + packetIdLength + 4 );
+            } else if ( packetId == 0x13 /* Destroy Entities */ )
+            {
+                int count = DefinedPacket.readVarInt( packet );
+                for ( int i = 0; i < count; i++ )
+                {
+                    packet = EntityMap.rewriteVarInt( packet, oldId, newId, packet.readerIndex() );
+                }
+            } else if ( packetId == 0x0E /* Spawn Object */ )
+            {
+                DefinedPacket.readVarInt( packet );
+                int type = packet.readUnsignedByte();
+                if ( type == 60 || type == 90 )
+                {
+                    packet.skipBytes( 14 );
+                    EntityMap.rewriteInt( packet, oldId, newId, packet.readerIndex() );
+                }
+            } else if ( packetId == 0x42 /* Combat Event */ )
+            {
+                int event = packet.readUnsignedByte();
+                if ( event == 1 /* End Combat*/ )
+                {
+                    DefinedPacket.readVarInt( packet );
+                    EntityMap.rewriteInt( packet, oldId, newId, packet.readerIndex() );
+                } else if ( event == 2 /* Entity Dead */ )
+                {
+                    packet = EntityMap.rewriteVarInt( packet, oldId, newId, packet.readerIndex() );
+                    EntityMap.rewriteInt( packet, oldId, newId, packet.readerIndex() );
+                }
+            }
+            packet.readerIndex( readerIndex );
+            return packet;
+        }
+    }
+}
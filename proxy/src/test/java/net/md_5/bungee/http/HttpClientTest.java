@@ -0,0 +1,134 @@
+package net.md_5.bungee.http;
+
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.SimpleChannelInboundHandler;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.nio.NioServerSocketChannel;
+import io.netty.handler.codec.http.DefaultFullHttpResponse;
+import io.netty.handler.codec.http.FullHttpResponse;
+import io.netty.handler.codec.http.HttpHeaders;
+import io.netty.handler.codec.http.HttpRequest;
+import io.netty.handler.codec.http.HttpResponseStatus;
+import io.netty.handler.codec.http.HttpServerCodec;
+import io.netty.handler.codec.http.HttpVersion;
+import java.net.InetSocketAddress;
+import java.nio.charset.Charset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.md_5.bungee.api.Callback;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Runs the client against a local stand-in for the session server.
+ */
+public class HttpClientTest
+{
+
+    private static final int REQUESTS = 1000;
+    //
+    private EventLoopGroup group;
+    private String url;
+    private final AtomicInteger connections = new AtomicInteger();
+    private final AtomicBoolean dropNext = new AtomicBoolean();
+
+    @Before
+    public void startServer()
+    {
+        group = new NioEventLoopGroup( 2 );
+        Channel server = new ServerBootstrap().channel( NioServerSocketChannel.class ).group( group ).childHandler( new ChannelInitializer<Channel>()
+        {
+            @Override
+            protected void initChannel(Channel ch) throws Exception
+            {
+                connections.incrementAndGet();
+                ch.pipeline().addLast( new HttpServerCodec() );
+                ch.pipeline().addLast( new SimpleChannelInboundHandler<HttpRequest>()
+                {
+                    @Override
+                    protected void channelRead0(ChannelHandlerContext ctx, HttpRequest msg) throws Exception
+                    {
+                        // Act like a server which timed out a keep-alive connection
+                        if ( dropNext.compareAndSet( true, false ) )
+                        {
+                            ctx.close();
+                            return;
+                        }
+
+                        FullHttpResponse response = new DefaultFullHttpResponse( HttpVersion.HTTP_1_1, HttpResponseStatus.OK,
+                                Unpooled.copiedBuffer( msg.getUri(), Charset.forName( "UTF-8" ) ) );
+                        response.headers().set( HttpHeaders.Names.CONTENT_LENGTH, response.content().readableBytes() );
+                        ctx.writeAndFlush( response );
+                    }
+                } );
+            }
+        } ).bind( new InetSocketAddress( "127.0.0.1", 0 ) ).syncUninterruptibly().channel();
+
+        url = "http://127.0.0.1:" + ( (InetSocketAddress) server.localAddress() ).getPort();
+    }
+
+    @After
+    public void stopServer()
+    {
+        group.shutdownGracefully().syncUninterruptibly();
+    }
+
+    private int request(int count) throws InterruptedException
+    {
+        final CountDownLatch done = new CountDownLatch( count );
+        final AtomicInteger failures = new AtomicInteger();
+        for ( int i = 0; i < count; i++ )
+        {
+            final String path = "/hasJoined?id=" + i;
+            HttpClient.get( url + path, group.next(), new Callback<String>()
+            {
+                @Override
+                public void done(String result, Throwable error)
+                {
+                    if ( !path.equals( result ) )
+                    {
+                        failures.incrementAndGet();
+                    }
+                    done.countDown();
+                }
+            } );
+        }
+        Assert.assertTrue( "Requests timed out", done.await( 1, TimeUnit.MINUTES ) );
+        return failures.get();
+    }
+
+    @Test
+    public void testPooling() throws Exception
+    {
+        Assert.assertEquals( 0, request( REQUESTS ) );
+        Assert.assertTrue( "Connections should be reused, opened " + connections.get(), connections.get() <= 2 * HttpClient.MAX_CONNECTIONS );
+    }
+
+    @Test
+    public void testRetry() throws Exception
+    {
+        Assert.assertEquals( 0, request( 1 ) );
+
+        dropNext.set( true );
+        Assert.assertEquals( 0, request( 1 ) );
+    }
+
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        long start = System.nanoTime();
+        request( REQUESTS );
+        long elapsed = System.nanoTime() - start;
+
+        System.out.println( String.format( "Requests: %d, Connections: %d, Elapsed: %d ms, %.0f requests/s", REQUESTS, connections.get(), elapsed / 1000000, REQUESTS / ( elapsed / 1e9 ) ) );
+    }
+}
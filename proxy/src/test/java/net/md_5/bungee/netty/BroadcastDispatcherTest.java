@@ -0,0 +1,148 @@
+package net.md_5.bungee.netty;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.bootstrap.ServerBootstrap;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.local.LocalAddress;
+import io.netty.channel.local.LocalChannel;
+import io.netty.channel.local.LocalEventLoopGroup;
+import io.netty.channel.local.LocalServerChannel;
+import io.netty.util.ReferenceCountUtil;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BroadcastDispatcherTest
+{
+
+    private static final boolean BENCHMARK = Boolean.getBoolean( "bungee.benchmark" );
+    private static final int IO_THREADS = 8;
+    // Enough channels to spread over every loop, and a realistic crowd when benchmarking
+    private static final int CHANNELS = ( BENCHMARK ) ? 5000 : 500;
+    private static final int BROADCASTS = 100;
+    //
+    private final AtomicReference<CountDownLatch> received = new AtomicReference<>();
+    private final List<ChannelWrapper> channels = new ArrayList<>();
+    private EventLoopGroup serverGroup;
+    private EventLoopGroup clientGroup;
+
+    @Before
+    public void connect()
+    {
+        serverGroup = new LocalEventLoopGroup( IO_THREADS );
+        clientGroup = new LocalEventLoopGroup( IO_THREADS );
+        LocalAddress address = new LocalAddress( "broadcast" );
+
+        new ServerBootstrap()
+                .channel( LocalServerChannel.class )
+                .group( serverGroup )
+                .childHandler( new ChannelInboundHandlerAdapter()
+                {
+                    @Override
+                    public void channelRead(ChannelHandlerContext ctx, Object msg) throws Exception
+                    {
+                        ReferenceCountUtil.release( msg );
+                        received.get().countDown();
+                    }
+
+                    @Override
+                    public boolean isSharable()
+                    {
+                        return true;
+                    }
+                } )
+                .bind( address ).syncUninterruptibly();
+
+        Bootstrap bootstrap = new Bootstrap()
+                .channel( LocalChannel.class )
+                .group( clientGroup )
+                .handler( new ChannelInboundHandlerAdapter()
+                {
+                    @Override
+                    public boolean isSharable()
+                    {
+                        return true;
+                    }
+                } );
+        for ( int i = 0; i < CHANNELS; i++ )
+        {
+            Channel channel = bootstrap.connect( address ).syncUninterruptibly().channel();
+            channels.add( new ChannelWrapper( channel.pipeline().firstContext() ) );
+        }
+    }
+
+    @After
+    public void shutdown()
+    {
+        clientGroup.shutdownGracefully( 0, 10, TimeUnit.SECONDS ).syncUninterruptibly();
+        serverGroup.shutdownGracefully( 0, 10, TimeUnit.SECONDS ).syncUninterruptibly();
+    }
+
+    @Test
+    public void testDispatch() throws Exception
+    {
+        received.set( new CountDownLatch( CHANNELS ) );
+        ByteBuf packet = PooledByteBufAllocator.DEFAULT.directBuffer().writeInt( 42 );
+
+        BroadcastDispatcher dispatcher = new BroadcastDispatcher();
+        for ( ChannelWrapper channel : channels )
+        {
+            dispatcher.add( channel, packet.duplicate().retain() );
+        }
+        dispatcher.dispatch();
+
+        Assert.assertTrue( "Every channel should receive the broadcast", received.get().await( 10, TimeUnit.SECONDS ) );
+        Assert.assertTrue( "Only the broadcast's own reference should remain", packet.release() );
+        Assert.assertTrue( "One task per event loop expected", BroadcastDispatcher.getWakeupsPerBroadcast() <= IO_THREADS );
+    }
+
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        Assume.assumeTrue( BENCHMARK );
+        System.out.println( "Broadcasting to " + CHANNELS + " channels on " + IO_THREADS + " threads, writing per channel..." );
+        long start = System.nanoTime();
+        received.set( new CountDownLatch( CHANNELS * BROADCASTS ) );
+        for ( int i = 0; i < BROADCASTS; i++ )
+        {
+            ByteBuf packet = PooledByteBufAllocator.DEFAULT.directBuffer().writeInt( i );
+            for ( ChannelWrapper channel : channels )
+            {
+                channel.write( packet.duplicate().retain() );
+            }
+            packet.release();
+        }
+        Assert.assertTrue( received.get().await( 2, TimeUnit.MINUTES ) );
+        System.out.println( String.format( "Broadcasts: %d, Elapsed: %d ms, wakeups per broadcast: %d", BROADCASTS, ( System.nanoTime() - start ) / 1000000, CHANNELS ) );
+
+        System.out.println( "Broadcasting to " + CHANNELS + " channels on " + IO_THREADS + " threads, one task per event loop..." );
+        start = System.nanoTime();
+        received.set( new CountDownLatch( CHANNELS * BROADCASTS ) );
+        for ( int i = 0; i < BROADCASTS; i++ )
+        {
+            ByteBuf packet = PooledByteBufAllocator.DEFAULT.directBuffer().writeInt( i );
+            BroadcastDispatcher dispatcher = new BroadcastDispatcher();
+            for ( ChannelWrapper channel : channels )
+            {
+                dispatcher.add( channel, packet.duplicate().retain() );
+            }
+            dispatcher.dispatch();
+            packet.release();
+        }
+        Assert.assertTrue( received.get().await( 2, TimeUnit.MINUTES ) );
+        System.out.println( String.format( "Broadcasts: %d, Elapsed: %d ms, wakeups per broadcast: %.1f", BROADCASTS, ( System.nanoTime() - start ) / 1000000,
+                BroadcastDispatcher.getWakeupsPerBroadcast() ) );
+    }
+}
@@ -0,0 +1,195 @@
+package net.md_5.bungee.netty;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.ChannelInitializer;
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.util.internal.PlatformDependent;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.md_5.bungee.api.config.ListenerInfo;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+/**
+ * Binds listeners through {@link PipelineUtils#bindListener} and opens a
+ * burst of loopback connections to them, comparing one acceptor channel with
+ * several sharing the port with SO_REUSEPORT.
+ */
+public class ConnectStormTest
+{
+
+    private static final int CONNECTIONS = 200;
+    private static final int BENCHMARK_CONNECTIONS = 2000;
+    private static final int CLIENT_THREADS = 16;
+    private static final int ACCEPTORS = 4;
+
+    @Test
+    public void testEpollByDefault()
+    {
+        Assume.assumeTrue( System.getProperty( "bungee.epoll" ) == null && !PlatformDependent.isWindows() );
+        Assert.assertEquals( Epoll.isAvailable(), PipelineUtils.isEpoll() );
+    }
+
+    @Test
+    public void testAcceptors() throws Exception
+    {
+        // Several acceptors need epoll, otherwise only one is bound
+        Storm storm = storm( ACCEPTORS, CONNECTIONS );
+        int expected = ( PipelineUtils.isEpoll() ) ? ACCEPTORS : 1;
+
+        Assert.assertEquals( expected, storm.bound.size() );
+        Assert.assertEquals( CONNECTIONS, storm.accepted.get() );
+        Assert.assertEquals( "Accepted channels should carry their listener", CONNECTIONS, storm.tagged.get() );
+        Assert.assertEquals( "Accepts should be spread over every acceptor", expected, storm.parents.size() );
+        for ( Channel channel : storm.bound )
+        {
+            Assert.assertEquals( PipelineUtils.getServerChannel(), channel.getClass() );
+        }
+    }
+
+    @Test
+    public void testBenchmark() throws Exception
+    {
+        Assume.assumeTrue( Boolean.getBoolean( "bungee.benchmark" ) && PipelineUtils.isEpoll() );
+        int acceptors = Runtime.getRuntime().availableProcessors();
+
+        System.out.println( "Benchmarking connect storm with 1 acceptor..." );
+        storm( 1, BENCHMARK_CONNECTIONS );
+        System.out.println( "Benchmarking connect storm with " + acceptors + " acceptors..." );
+        storm( acceptors, BENCHMARK_CONNECTIONS );
+    }
+
+    private static ListenerInfo listener(int port, int acceptors)
+    {
+        return new ListenerInfo( new InetSocketAddress( "127.0.0.1", port ), "", 1, 1, "lobby", "lobby", true, Collections.<String, String>emptyMap(), "GLOBAL_PING", false, false, port, false, -1, -1, false, acceptors );
+    }
+
+    private static int freePort() throws IOException
+    {
+        try ( ServerSocket socket = new ServerSocket( 0 ) )
+        {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static Storm storm(int acceptors, int connections) throws Exception
+    {
+        final Storm storm = new Storm( connections );
+        EventLoopGroup group = PipelineUtils.newEventLoopGroup( acceptors, new ThreadFactoryBuilder().setNameFormat( "Connect Storm #%1$d" ).build() );
+        final ListenerInfo info = listener( freePort(), acceptors );
+
+        try
+        {
+            final CountDownLatch bound = new CountDownLatch( acceptors );
+            int binding = PipelineUtils.bindListener( info, group, new ChannelInitializer<Channel>()
+            {
+                @Override
+                protected void initChannel(Channel ch) throws Exception
+                {
+                    if ( ch.attr( PipelineUtils.LISTENER ).get() == info )
+                    {
+                        storm.tagged.incrementAndGet();
+                    }
+                    storm.parents.add( ch.parent() );
+                    ch.pipeline().addLast( new ChannelInboundHandlerAdapter()
+                    {
+                        @Override
+                        public void channelActive(ChannelHandlerContext ctx) throws Exception
+                        {
+                            storm.accepted.incrementAndGet();
+                            storm.done.countDown();
+                            ctx.close();
+                        }
+                    } );
+                }
+            }, new ChannelFutureListener()
+            {
+                @Override
+                public void operationComplete(ChannelFuture future) throws Exception
+                {
+                    if ( future.isSuccess() )
+                    {
+                        storm.bound.add( future.channel() );
+                    }
+                    bound.countDown();
+                }
+            } );
+            for ( int i = binding; i < acceptors; i++ )
+            {
+                bound.countDown();
+            }
+            Assert.assertTrue( bound.await( 10, TimeUnit.SECONDS ) );
+
+            long start = System.nanoTime();
+            storm.connect( info.getHost() );
+            Assert.assertTrue( "Connect storm timed out", storm.done.await( 2, TimeUnit.MINUTES ) );
+            long elapsed = System.nanoTime() - start;
+
+            System.out.println( String.format( "Accepted: %d, Elapsed: %d ms, %.0f accepts/s", storm.accepted.get(), elapsed / 1000000, storm.accepted.get() / ( elapsed / 1e9 ) ) );
+        } finally
+        {
+            group.shutdownGracefully().syncUninterruptibly();
+        }
+        return storm;
+    }
+
+    private static class Storm
+    {
+
+        private final int connections;
+        private final CountDownLatch done;
+        private final AtomicInteger accepted = new AtomicInteger();
+        private final AtomicInteger tagged = new AtomicInteger();
+        private final List<Channel> bound = Collections.synchronizedList( new ArrayList<Channel>() );
+        private final Set<Channel> parents = Collections.synchronizedSet( new HashSet<Channel>() );
+
+        private Storm(int connections)
+        {
+            this.connections = connections;
+            this.done = new CountDownLatch( connections );
+        }
+
+        private void connect(final InetSocketAddress address)
+        {
+            final AtomicInteger remaining = new AtomicInteger( connections );
+            for ( int i = 0; i < CLIENT_THREADS; i++ )
+            {
+                new Thread()
+                {
+                    @Override
+                    public void run()
+                    {
+                        while ( remaining.getAndDecrement() > 0 )
+                        {
+                            try ( Socket socket = new Socket() )
+                            {
+                                socket.setSoLinger( true, 0 );
+                                socket.connect( address );
+                            } catch ( IOException ex )
+                            {
+                                done.countDown();
+                            }
+                        }
+                    }
+                }.start();
+            }
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package net.md_5.bungee.netty;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import java.net.InetSocketAddress;
+import net.md_5.bungee.BungeeServerInfo;
+import net.md_5.bungee.ServerConnection;
+import net.md_5.bungee.api.connection.Connection;
+import net.md_5.bungee.protocol.PacketWrapper;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ReadBatchTest
+{
+
+    private EmbeddedChannel source;
+    private EmbeddedChannel target;
+    private ChannelWrapper targetCh;
+    private Connection.Unsafe targetUnsafe;
+    private int flushes;
+    private boolean flushNow;
+
+    @Before
+    public void setup()
+    {
+        target = new EmbeddedChannel( new ChannelOutboundHandlerAdapter()
+        {
+            @Override
+            public void flush(ChannelHandlerContext ctx) throws Exception
+            {
+                flushes++;
+                super.flush( ctx );
+            }
+        } );
+        targetCh = new ChannelWrapper( target.pipeline().firstContext() );
+        targetUnsafe = new ServerConnection( targetCh, new BungeeServerInfo( "target", new InetSocketAddress( "127.0.0.1", 25565 ), "", false ) ).unsafe();
+
+        // Forwards every packet read to the target, as the bridges do
+        HandlerBoss boss = new HandlerBoss();
+        source = new EmbeddedChannel( boss );
+        boss.setHandler( new PacketHandler()
+        {
+            @Override
+            public void handle(PacketWrapper packet) throws Exception
+            {
+                targetCh.write( packet.buf.retain() );
+                if ( flushNow )
+                {
+                    targetUnsafe.flushNow();
+                }
+            }
+
+            @Override
+            public String toString()
+            {
+                return "ReadBatchTest";
+            }
+        } );
+    }
+
+    @After
+    public void cleanup()
+    {
+        // Leave no batch open on this thread for the next test
+        source.pipeline().fireChannelReadComplete();
+        source.runPendingTasks();
+        ByteBuf buf;
+        while ( ( buf = (ByteBuf) target.readOutbound() ) != null )
+        {
+            buf.release();
+        }
+    }
+
+    private void read()
+    {
+        source.pipeline().fireChannelRead( new PacketWrapper( null, Unpooled.buffer().writeInt( 42 ) ) );
+    }
+
+    private int drain()
+    {
+        int count = 0;
+        ByteBuf buf;
+        while ( ( buf = (ByteBuf) target.readOutbound() ) != null )
+        {
+            buf.release();
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testFlushOnReadComplete()
+    {
+        read();
+        read();
+        read();
+        Assert.assertEquals( "Writes during a read should be held back", 0, flushes );
+        Assert.assertEquals( 0, drain() );
+
+        source.pipeline().fireChannelReadComplete();
+        Assert.assertEquals( "Batch should be flushed once", 1, flushes );
+        Assert.assertEquals( 3, drain() );
+
+        // The fallback task finds nothing left to do
+        source.runPendingTasks();
+        Assert.assertEquals( 1, flushes );
+    }
+
+    @Test
+    public void testWriteOutsideBatch()
+    {
+        targetCh.write( Unpooled.buffer().writeInt( 42 ) );
+        Assert.assertEquals( "Writes outside a read should flush immediately", 1, flushes );
+        Assert.assertEquals( 1, drain() );
+
+        read();
+        source.pipeline().fireChannelReadComplete();
+        targetCh.write( Unpooled.buffer().writeInt( 42 ) );
+        Assert.assertEquals( "Completed batches should not hold back later writes", 3, flushes );
+        Assert.assertEquals( 2, drain() );
+    }
+
+    @Test
+    public void testFallbackFlush()
+    {
+        read();
+        read();
+        Assert.assertEquals( 0, flushes );
+
+        // No read complete, so the task queued on the loop flushes instead
+        source.runPendingTasks();
+        Assert.assertEquals( 1, flushes );
+        Assert.assertEquals( 2, drain() );
+
+        // And the batch is closed, so writes flush immediately again
+        targetCh.write( Unpooled.buffer().writeInt( 42 ) );
+        Assert.assertEquals( 2, flushes );
+        Assert.assertEquals( 1, drain() );
+    }
+
+    @Test
+    public void testFlushNow()
+    {
+        flushNow = true;
+        read();
+        Assert.assertEquals( "Unsafe flushNow should flush within a batch", 1, flushes );
+        Assert.assertEquals( 1, drain() );
+
+        flushNow = false;
+        targetUnsafe.flushNow();
+        Assert.assertEquals( 2, flushes );
+    }
+}
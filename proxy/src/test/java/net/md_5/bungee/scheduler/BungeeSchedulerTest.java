@@ -0,0 +1,252 @@
+package net.md_5.bungee.scheduler;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import net.md_5.bungee.api.plugin.Plugin;
+import net.md_5.bungee.api.scheduler.ScheduledTask;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BungeeSchedulerTest
+{
+
+    private final BungeeScheduler scheduler = new BungeeScheduler();
+    private final List<ExecutorService> executors = new ArrayList<>();
+
+    @After
+    public void cleanup()
+    {
+        scheduler.getTimer().shutdownNow();
+        for ( ExecutorService executor : executors )
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private Plugin plugin(final ExecutorService executor)
+    {
+        executors.add( executor );
+        return new Plugin()
+        {
+            @Override
+            public ExecutorService getExecutorService()
+            {
+                return executor;
+            }
+        };
+    }
+
+    private Plugin plugin()
+    {
+        return plugin( Executors.newCachedThreadPool() );
+    }
+
+    private static Runnable countDown(final CountDownLatch latch)
+    {
+        return new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                latch.countDown();
+            }
+        };
+    }
+
+    private static long millisSince(long start)
+    {
+        return TimeUnit.NANOSECONDS.toMillis( System.nanoTime() - start );
+    }
+
+    @Test
+    public void testDelay() throws Exception
+    {
+        final long[] ranAt = new long[ 1 ];
+        final CountDownLatch done = new CountDownLatch( 1 );
+        long start = System.nanoTime();
+        scheduler.schedule( plugin(), new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                ranAt[0] = System.nanoTime();
+                done.countDown();
+            }
+        }, 200, TimeUnit.MILLISECONDS );
+
+        Assert.assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+        long elapsed = TimeUnit.NANOSECONDS.toMillis( ranAt[0] - start );
+        Assert.assertTrue( "Ran early after " + elapsed + " ms", elapsed >= 200 );
+        Assert.assertTrue( "Ran late after " + elapsed + " ms", elapsed < 1000 );
+    }
+
+    @Test
+    public void testPeriod() throws Exception
+    {
+        final List<Long> runs = new ArrayList<>();
+        final CountDownLatch done = new CountDownLatch( 10 );
+        ScheduledTask task = scheduler.schedule( plugin(), new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                synchronized ( runs )
+                {
+                    runs.add( System.nanoTime() );
+                }
+                done.countDown();
+            }
+        }, 0, 50, TimeUnit.MILLISECONDS );
+
+        Assert.assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+        task.cancel();
+        synchronized ( runs )
+        {
+            for ( int i = 1; i < 10; i++ )
+            {
+                long interval = TimeUnit.NANOSECONDS.toMillis( runs.get( i ) - runs.get( i - 1 ) );
+                Assert.assertTrue( "Run " + i + " came early after " + interval + " ms", interval >= 49 );
+            }
+            long total = TimeUnit.NANOSECONDS.toMillis( runs.get( 9 ) - runs.get( 0 ) );
+            Assert.assertTrue( "Nine periods took " + total + " ms", total < 9 * 50 * 3 );
+        }
+
+        // No further runs once cancelled
+        int count;
+        synchronized ( runs )
+        {
+            count = runs.size();
+        }
+        Thread.sleep( 200 );
+        synchronized ( runs )
+        {
+            Assert.assertEquals( count, runs.size() );
+        }
+    }
+
+    @Test
+    public void testCancelPlugin() throws Exception
+    {
+        Plugin cancelled = plugin();
+        Plugin other = plugin();
+        final AtomicInteger ran = new AtomicInteger();
+        Runnable count = new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                ran.incrementAndGet();
+            }
+        };
+        for ( int i = 0; i < 5; i++ )
+        {
+            scheduler.schedule( cancelled, count, 200, TimeUnit.MILLISECONDS );
+        }
+        scheduler.schedule( cancelled, count, 200, 50, TimeUnit.MILLISECONDS );
+        CountDownLatch otherDone = new CountDownLatch( 1 );
+        scheduler.schedule( other, countDown( otherDone ), 200, TimeUnit.MILLISECONDS );
+
+        Assert.assertEquals( 6, scheduler.cancel( cancelled ) );
+        Assert.assertEquals( "Nothing left to cancel", 0, scheduler.cancel( cancelled ) );
+        Assert.assertTrue( "Other plugins' tasks should still run", otherDone.await( 10, TimeUnit.SECONDS ) );
+        Thread.sleep( 200 );
+        Assert.assertEquals( "Cancelled tasks must not run", 0, ran.get() );
+        Assert.assertTrue( "Timer should drop cancelled delays", scheduler.getTimer().getQueue().isEmpty() );
+    }
+
+    @Test
+    public void testRejectedRetried() throws Exception
+    {
+        // One thread and no queue, so anything submitted while it is busy is rejected
+        ThreadPoolExecutor executor = new ThreadPoolExecutor( 1, 1, 0, TimeUnit.MILLISECONDS, new SynchronousQueue<Runnable>(), new ThreadPoolExecutor.AbortPolicy() );
+        Plugin plugin = plugin( executor );
+        final CountDownLatch gate = new CountDownLatch( 1 );
+        final CountDownLatch blocking = new CountDownLatch( 1 );
+        scheduler.runAsync( plugin, new Runnable()
+        {
+            @Override
+            public void run()
+            {
+                blocking.countDown();
+                try
+                {
+                    gate.await();
+                } catch ( InterruptedException ex )
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        } );
+        Assert.assertTrue( blocking.await( 10, TimeUnit.SECONDS ) );
+
+        CountDownLatch done = new CountDownLatch( 6 );
+        for ( int i = 0; i < 5; i++ )
+        {
+            scheduler.runAsync( plugin, countDown( done ) );
+        }
+        scheduler.schedule( plugin, countDown( done ), 20, TimeUnit.MILLISECONDS );
+        Thread.sleep( 200 );
+        Assert.assertEquals( "Nothing should run while the executor is full", 6, done.getCount() );
+
+        // Every rejected task runs once the executor frees up
+        gate.countDown();
+        Assert.assertTrue( "Rejected tasks were dropped", done.await( 10, TimeUnit.SECONDS ) );
+    }
+
+    @Test
+    public void testRejectedShutdown() throws Exception
+    {
+        ExecutorService executor = Executors.newCachedThreadPool();
+        Plugin plugin = plugin( executor );
+        executor.shutdown();
+
+        CountDownLatch done = new CountDownLatch( 1 );
+        BungeeTask task = (BungeeTask) scheduler.runAsync( plugin, countDown( done ) );
+        Assert.assertFalse( "Tasks of a disabled plugin should be cancelled", task.getRunning().get() );
+        Assert.assertEquals( 0, scheduler.cancel( plugin ) );
+        Assert.assertTrue( scheduler.getTimer().getQueue().isEmpty() );
+    }
+
+    @Test
+    public void testConstantThreads() throws Exception
+    {
+        final AtomicInteger created = new AtomicInteger();
+        final ThreadFactory factory = Executors.defaultThreadFactory();
+        Plugin plugin = plugin( Executors.newCachedThreadPool( new ThreadFactory()
+        {
+            @Override
+            public Thread newThread(Runnable r)
+            {
+                created.incrementAndGet();
+                return factory.newThread( r );
+            }
+        } ) );
+
+        int before = ManagementFactory.getThreadMXBean().getThreadCount();
+        long start = System.nanoTime();
+        CountDownLatch done = new CountDownLatch( 500 );
+        for ( int i = 0; i < 500; i++ )
+        {
+            scheduler.schedule( plugin, countDown( done ), 500, TimeUnit.MILLISECONDS );
+        }
+        int after = ManagementFactory.getThreadMXBean().getThreadCount();
+        Assert.assertTrue( "Scheduling should not wait out the delay", millisSince( start ) < 500 );
+
+        // Only the timer thread waits out the delays
+        Assert.assertEquals( "No executor threads should be held during delays", 0, created.get() );
+        Assert.assertEquals( 1, scheduler.getTimer().getPoolSize() );
+        Assert.assertTrue( "Thread count grew from " + before + " to " + after, after - before <= 1 );
+
+        Assert.assertTrue( done.await( 10, TimeUnit.SECONDS ) );
+    }
+}